@@ -0,0 +1,30 @@
+package ma.mini_project_insurance_claim_records.batch.config_500;
+
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class AsyncJobLauncherConfig {
+    /*Configures a JobLauncher that returns as soon as the job execution is created.
+    Responsibility:
+     Runs submitted jobs on a dedicated virtual-thread executor, so HTTP threads are not held for the whole job.
+     The default "jobLauncher" bean stays synchronous for the existing endpoints and the startup import.
+     The executor is not exposed as a bean, so Spring Boot's applicationTaskExecutor is left in place.
+     */
+
+    @Bean
+    public JobLauncher asyncJobLauncher(JobRepository jobRepository) throws Exception {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("batch-job-");
+        taskExecutor.setVirtualThreads(true);
+
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(taskExecutor);
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher;
+    }
+}
@@ -1,28 +1,61 @@
 package ma.mini_project_insurance_claim_records.batch.config_500;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.observation.ObservationRegistry;
 import io.micrometer.tracing.Tracer;
 
 import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import ma.mini_project_insurance_claim_records.batch.fault.DossierStepFaultTolerance;
+import ma.mini_project_insurance_claim_records.batch.listener.DossierPayloadReleaseListener;
+import ma.mini_project_insurance_claim_records.batch.listener.MedicationReferenceIndexListener;
+import ma.mini_project_insurance_claim_records.batch.listener.ReferenceMedicationPrefetchListener;
+import ma.mini_project_insurance_claim_records.batch.listener.RejectedDossierFlushListener;
+import ma.mini_project_insurance_claim_records.batch.listener.RejectedDossierSkipListener;
+import ma.mini_project_insurance_claim_records.batch.listener.StepThroughputListener;
+import ma.mini_project_insurance_claim_records.batch.partition.CsvRangePartitioner;
+import ma.mini_project_insurance_claim_records.batch.processor.DossierCompositeProcessor;
+import ma.mini_project_insurance_claim_records.batch.processor.DossierValidationProcessor;
+import ma.mini_project_insurance_claim_records.batch.processor.FusedReimbursementProcessor;
+import ma.mini_project_insurance_claim_records.batch.processor.ReimbursementProcessingMode;
+import ma.mini_project_insurance_claim_records.batch.processor.columnar.ColumnarReimbursementCalculator;
 import ma.mini_project_insurance_claim_records.batch.reader.CsvItemReader;
+import ma.mini_project_insurance_claim_records.batch.tasklet.IncrementalReferenceRefreshTasklet;
+import ma.mini_project_insurance_claim_records.batch.tasklet.ReimbursementRollupRebuildTasklet;
+import ma.mini_project_insurance_claim_records.batch.writer.ColumnarReimbursementWriter;
+import ma.mini_project_insurance_claim_records.batch.writer.DossierDatabaseWriter;
+import ma.mini_project_insurance_claim_records.batch.writer.csv.CsvItemWriter;
+import ma.mini_project_insurance_claim_records.batch.writer.csv.ReferenceImportWriterMode;
+import ma.mini_project_insurance_claim_records.batch.writer.csv.TreatmentProductCopyWriter;
+import ma.mini_project_insurance_claim_records.batch.writer.csv.TreatmentProductJdbcBatchWriter;
 import ma.mini_project_insurance_claim_records.model.Dossier;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.integration.async.AsyncItemProcessor;
+import org.springframework.batch.integration.async.AsyncItemWriter;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.concurrent.Future;
+
 @Configuration
 @EnableBatchProcessing
 public class ReimbursementJobConfig {
@@ -51,50 +84,270 @@ public class ReimbursementJobConfig {
         return registry;
     }
 
+    /*
+        Writer of the reference import, chosen with reference.import.writer:
+        JPA (default), JDBC_BATCH or COPY. See ReferenceImportWriterMode.
+     */
+    @Bean
+    public ItemWriter<TreatmentProduct> referenceProductWriter(@Value("${reference.import.writer:JPA}") ReferenceImportWriterMode mode,
+                                                               CsvItemWriter csvItemWriter,
+                                                               TreatmentProductJdbcBatchWriter jdbcBatchWriter,
+                                                               TreatmentProductCopyWriter copyWriter) {
+        return switch (mode) {
+            case JPA -> csvItemWriter;
+            case JDBC_BATCH -> jdbcBatchWriter;
+            case COPY -> copyWriter;
+        };
+    }
+
     @Bean
     public Step fetchReimbursementProductStep(JobRepository jobRepository,
                                               PlatformTransactionManager transactionManager,
 //                                              FlatFileItemReader<TreatmentProduct> productsFlatFileItemReader,
-                                              ItemReader<TreatmentProduct> reader,
-                                              ItemWriter<TreatmentProduct> writer) throws Exception {
+                                              CsvItemReader reader,
+                                              ItemWriter<TreatmentProduct> referenceProductWriter,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${reference.import.writer:JPA}") ReferenceImportWriterMode writerMode,
+                                              @Value("${reference.import.chunk-size:100}") int chunkSize) throws Exception {
 //            , JobParameters jobParameters
         return new StepBuilder("ETL: Import-Reimbursement-Product-Step", jobRepository)
-                .<TreatmentProduct, TreatmentProduct>chunk(100, transactionManager)
+                .<TreatmentProduct, TreatmentProduct>chunk(chunkSize, transactionManager)
+                .reader(reader)
+                .writer(referenceProductWriter)
+                .listener(new StepThroughputListener(meterRegistry, 1, Tags.of("writer", writerMode.name())))
+                .build();
+    }
+
+    /*
+        Worker of the partitioned import: parses and writes the byte range of the reference
+        file held in its step execution context. Each partition is its own step execution,
+        so a failed partition is restarted alone from its last committed offset.
+     */
+    @Bean
+    public Step fetchReimbursementProductWorkerStep(JobRepository jobRepository,
+                                                    PlatformTransactionManager transactionManager,
+                                                    CsvItemReader reader,
+                                                    ItemWriter<TreatmentProduct> referenceProductWriter,
+                                                    @Value("${reference.import.chunk-size:100}") int chunkSize) {
+        return new StepBuilder("ETL: Import-Reimbursement-Product-Worker-Step", jobRepository)
+                .<TreatmentProduct, TreatmentProduct>chunk(chunkSize, transactionManager)
                 .reader(reader)
-                .writer(writer)
+                .writer(referenceProductWriter)
+                .build();
+    }
+
+    /*
+        Splits the reference file into reference.import.grid-size byte ranges and runs
+        one worker step per range in parallel on virtual threads.
+     */
+    @Bean
+    public Step fetchReimbursementProductPartitionedStep(JobRepository jobRepository,
+                                                         Step fetchReimbursementProductWorkerStep,
+                                                         MeterRegistry meterRegistry,
+                                                         @Value("${file.input}") String fileInput,
+                                                         @Value("${reference.import.grid-size:4}") int gridSize,
+                                                         @Value("${reference.import.writer:JPA}") ReferenceImportWriterMode writerMode) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("reference-partition-");
+        taskExecutor.setVirtualThreads(true);
+        taskExecutor.setConcurrencyLimit(gridSize);
+
+        return new StepBuilder("ETL: Import-Reimbursement-Product-Partitioned-Step", jobRepository)
+                .partitioner(fetchReimbursementProductWorkerStep.getName(),
+                        new CsvRangePartitioner(new ClassPathResource(fileInput)))
+                .step(fetchReimbursementProductWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(taskExecutor)
+                .listener(new StepThroughputListener(meterRegistry, gridSize, Tags.of("writer", writerMode.name())))
+                .build();
+    }
+
+    /*
+        Incremental variant of the import: diffs the reference file against the table
+        and applies only the inserted, updated and deleted products in one transaction.
+     */
+    @Bean
+    public Step referenceIncrementalRefreshStep(JobRepository jobRepository,
+                                                PlatformTransactionManager transactionManager,
+                                                IncrementalReferenceRefreshTasklet incrementalReferenceRefreshTasklet) {
+        return new StepBuilder("ETL: Refresh-Reimbursement-Product-Step", jobRepository)
+                .tasklet(incrementalReferenceRefreshTasklet, transactionManager)
                 .build();
     }
 
     // Job: Organizes steps for the reimbursement product import
     @Bean
     public Job fetchReimbursementProductJob(JobRepository jobRepository,
-                                            Step fetchReimbursementProductStep) {
+                                            Step fetchReimbursementProductStep,
+                                            Step fetchReimbursementProductPartitionedStep,
+                                            Step referenceIncrementalRefreshStep,
+                                            MedicationReferenceIndexListener medicationReferenceIndexListener,
+                                            @Value("${reference.import.partitioned:false}") boolean partitioned,
+                                            @Value("${reference.import.incremental:false}") boolean incremental) {
+        Step importStep = incremental ? referenceIncrementalRefreshStep
+                : partitioned ? fetchReimbursementProductPartitionedStep
+                : fetchReimbursementProductStep;
         return new JobBuilder("ETL-Job", jobRepository)
                 .incrementer(new RunIdIncrementer())
-                .start(fetchReimbursementProductStep)
+                .listener(medicationReferenceIndexListener)
+                .start(importStep)
                 .build();
     }
 
+    /*
+        Processor of the dossier step, chosen with reimbursement.processing.mode:
+        STAGED (default) chains the four processors, FUSED computes the total in one pass,
+        COLUMNAR only validates and leaves the amounts to the writer.
+     */
+    @Bean
+    @Primary
+    public ItemProcessor<Dossier, Dossier> dossierProcessor(@Value("${reimbursement.processing.mode:STAGED}") ReimbursementProcessingMode mode,
+                                                            DossierCompositeProcessor dossierCompositeProcessor,
+                                                            FusedReimbursementProcessor fusedReimbursementProcessor,
+                                                            DossierValidationProcessor dossierValidationProcessor) {
+        return switch (mode) {
+            case STAGED -> dossierCompositeProcessor;
+            case FUSED -> fusedReimbursementProcessor;
+            case COLUMNAR -> dossierValidationProcessor;
+        };
+    }
+
+    /*
+        Writer of the dossier step. In COLUMNAR mode the reimbursed amounts of the whole
+        chunk are computed over primitive columns, vectorized when the JVM runs with
+        --add-modules jdk.incubator.vector, right before the chunk is saved.
+     */
+    @Bean
+    @Primary
+    public ItemWriter<Dossier> dossierWriter(@Value("${reimbursement.processing.mode:STAGED}") ReimbursementProcessingMode mode,
+                                             DossierDatabaseWriter dossierDatabaseWriter,
+                                             ColumnarReimbursementCalculator columnarReimbursementCalculator) {
+        if (mode == ReimbursementProcessingMode.COLUMNAR) {
+            return new ColumnarReimbursementWriter(columnarReimbursementCalculator, dossierDatabaseWriter);
+        }
+        return dossierDatabaseWriter;
+    }
+
+    /*
+        dossier.step.concurrency > 1 processes that many chunks at once on virtual threads.
+        DossierJsonReader pulls from a thread-safe DossierSource and DossierService lets the
+        database skip duplicate dossiers, so the step stays correct when parallel.
+
+        dossier.step.async.enabled pipelines the step: every dossier of a chunk is submitted
+        as a Future, so the reference lookups of the chunk run side by side, and the writer
+        unwraps the futures before saving. Combined with dossier.step.concurrency, the lookups
+        of one chunk overlap the write of another. dossier.step.async.max-in-flight bounds the
+        dossiers being processed at once across all chunks; once reached, submission blocks.
+
+        Unless dossier.step.fault-tolerant=false, data errors skip the failing dossier and
+        transient database errors retry the chunk with back-off (see DossierStepFaultTolerance).
+     */
     @Bean
     public Step fetchJSONToDossierStep(JobRepository jobRepository,
                                        PlatformTransactionManager transactionManager,
                                        ItemReader<Dossier> reader,
                                        ItemProcessor<Dossier, Dossier> processor,
-                                       ItemWriter<Dossier> writer) {
-        return new StepBuilder("fetchJSONToDossierStep", jobRepository)
-                .<Dossier, Dossier>chunk(10, transactionManager) // Specify input and output types for chunk
+                                       ItemWriter<Dossier> writer,
+                                       ReferenceMedicationPrefetchListener prefetchListener,
+                                       RejectedDossierFlushListener rejectedDossierFlushListener,
+                                       RejectedDossierSkipListener rejectedDossierSkipListener,
+                                       DossierStepFaultTolerance dossierStepFaultTolerance,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${dossier.step.chunk-size:10}") int chunkSize,
+                                       @Value("${dossier.step.concurrency:1}") int concurrency,
+                                       @Value("${dossier.step.async.enabled:false}") boolean asyncEnabled,
+                                       @Value("${dossier.step.async.max-in-flight:50}") int maxInFlight) throws Exception {
+        StepBuilder stepBuilder = new StepBuilder("fetchJSONToDossierStep", jobRepository);
+        if (!asyncEnabled) {
+            SimpleStepBuilder<Dossier, Dossier> builder = stepBuilder
+                    .<Dossier, Dossier>chunk(chunkSize, transactionManager) // Specify input and output types for chunk
+                    .reader(reader)
+                    .processor(processor)
+                    .writer(writer);
+            return dossierStep(dossierStepFaultTolerance.apply(builder), prefetchListener, rejectedDossierFlushListener,
+                    meterRegistry, concurrency);
+        }
+
+        SimpleAsyncTaskExecutor processorExecutor = new SimpleAsyncTaskExecutor("dossier-process-");
+        processorExecutor.setVirtualThreads(true);
+        processorExecutor.setConcurrencyLimit(maxInFlight);
+
+        AsyncItemProcessor<Dossier, Dossier> asyncProcessor = new AsyncItemProcessor<>();
+        // Keeps the input of a failed dossier, which the failed Future no longer carries
+        asyncProcessor.setDelegate(rejectedDossierSkipListener.recordingInputs(processor));
+        asyncProcessor.setTaskExecutor(processorExecutor);
+        asyncProcessor.afterPropertiesSet();
+
+        AsyncItemWriter<Dossier> asyncWriter = new AsyncItemWriter<>();
+        asyncWriter.setDelegate(writer);
+        asyncWriter.afterPropertiesSet();
+
+        SimpleStepBuilder<Dossier, Future<Dossier>> builder = stepBuilder
+                .<Dossier, Future<Dossier>>chunk(chunkSize, transactionManager)
                 .reader(reader)
-                .processor(processor)
-                .writer(writer)
-                .build();
+                .processor(asyncProcessor)
+                .writer(asyncWriter);
+        return dossierStep(dossierStepFaultTolerance.apply(builder), prefetchListener, rejectedDossierFlushListener,
+                meterRegistry, concurrency);
+    }
+
+    /*
+        Adds the listeners and the optional multi-threading shared by the plain and
+        pipelined variants of the dossier step.
+     */
+    private <O> Step dossierStep(SimpleStepBuilder<Dossier, O> builder,
+                                 ReferenceMedicationPrefetchListener prefetchListener,
+                                 RejectedDossierFlushListener rejectedDossierFlushListener,
+                                 MeterRegistry meterRegistry,
+                                 int concurrency) {
+        builder
+                // Collects the product codes of each chunk so they are resolved with one query
+                .listener((ItemReadListener<Dossier>) prefetchListener)
+                .listener((StepExecutionListener) prefetchListener)
+                // Stores the dossiers rejected by validation once each chunk has completed
+                .listener((ChunkListener) rejectedDossierFlushListener)
+                .listener((StepExecutionListener) rejectedDossierFlushListener)
+                .listener(new StepThroughputListener(meterRegistry, concurrency));
+
+        if (concurrency > 1) {
+            SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("dossier-chunk-");
+            taskExecutor.setVirtualThreads(true);
+            // The executor bounds the chunks in flight, the step throttle limit being deprecated
+            taskExecutor.setConcurrencyLimit(concurrency);
+            builder.taskExecutor(taskExecutor);
+        }
+        return builder.build();
     }
 
     @Bean
     public Job fetchJSONToDossierJob(JobRepository jobRepository,
-                                     Step fetchJSONToDossierStep){
+                                     Step fetchJSONToDossierStep,
+                                     DossierPayloadReleaseListener dossierPayloadReleaseListener){
         return new JobBuilder("fetchJSONToDossierJob",jobRepository)
                 .incrementer(new RunIdIncrementer())
+                .listener(dossierPayloadReleaseListener)
                 .start(fetchJSONToDossierStep)
                 .build();
     }
+
+    /*
+        Recomputes the reimbursement rollups from the dossier and treatment tables
+        in a single transaction.
+     */
+    @Bean
+    public Step rebuildReimbursementRollupsStep(JobRepository jobRepository,
+                                                PlatformTransactionManager transactionManager,
+                                                ReimbursementRollupRebuildTasklet reimbursementRollupRebuildTasklet) {
+        return new StepBuilder("rebuildReimbursementRollupsStep", jobRepository)
+                .tasklet(reimbursementRollupRebuildTasklet, transactionManager)
+                .build();
+    }
+
+    @Bean
+    public Job rebuildReimbursementRollupsJob(JobRepository jobRepository,
+                                              Step rebuildReimbursementRollupsStep) {
+        return new JobBuilder("rebuildReimbursementRollupsJob", jobRepository)
+                .incrementer(new RunIdIncrementer())
+                .start(rebuildReimbursementRollupsStep)
+                .build();
+    }
 }
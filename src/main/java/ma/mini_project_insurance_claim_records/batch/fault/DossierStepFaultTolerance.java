@@ -0,0 +1,108 @@
+package ma.mini_project_insurance_claim_records.batch.fault;
+
+import ma.mini_project_insurance_claim_records.batch.listener.RejectedDossierSkipListener;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
+import org.springframework.batch.core.step.skip.LimitCheckingItemSkipPolicy;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Skip and retry policies of the dossier step, configured with {@code dossier.step.*} properties.
+ *
+ * When {@code dossier.step.fault-tolerant} is true, a failing dossier no longer fails the
+ * job:
+ * <ul>
+ *   <li>Exceptions listed in {@code dossier.step.skippable-exceptions} (data errors, by
+ *       default) skip the dossier, up to {@code dossier.step.skip-limit} per step execution.
+ *       A write failure is narrowed down to the failing dossier by writing the chunk again
+ *       one item at a time.</li>
+ *   <li>Exceptions listed in {@code dossier.step.retryable-exceptions} (transient database
+ *       errors, by default) roll the chunk back and retry it, up to
+ *       {@code dossier.step.retry-limit} attempts, waiting between attempts with an
+ *       exponential back-off.</li>
+ * </ul>
+ * Listed exceptions also match their subclasses. Skipped dossiers are recorded with their
+ * reason by the {@link RejectedDossierSkipListener}. Processing is marked non-transactional,
+ * so processed dossiers are reused rather than processed again when a chunk is retried.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class DossierStepFaultTolerance {
+
+    private final boolean enabled;
+    private final SkipPolicy skipPolicy;
+    private final RetryPolicy retryPolicy;
+    private final ExponentialBackOffPolicy backOffPolicy;
+    private final RejectedDossierSkipListener rejectedDossierSkipListener;
+
+    public DossierStepFaultTolerance(@Value("${dossier.step.fault-tolerant:true}") boolean enabled,
+                                     @Value("${dossier.step.skip-limit:1000}") long skipLimit,
+                                     @Value("${dossier.step.skippable-exceptions:java.lang.IllegalArgumentException,java.lang.ArithmeticException,org.springframework.dao.DataIntegrityViolationException}") String[] skippableExceptions,
+                                     @Value("${dossier.step.retry-limit:3}") int retryLimit,
+                                     @Value("${dossier.step.retryable-exceptions:org.springframework.dao.TransientDataAccessException,org.springframework.dao.RecoverableDataAccessException}") String[] retryableExceptions,
+                                     @Value("${dossier.step.retry.initial-interval-ms:200}") long initialIntervalMillis,
+                                     @Value("${dossier.step.retry.multiplier:2.0}") double multiplier,
+                                     @Value("${dossier.step.retry.max-interval-ms:5000}") long maxIntervalMillis,
+                                     RejectedDossierSkipListener rejectedDossierSkipListener) {
+        this.enabled = enabled;
+        this.skipPolicy = new LimitCheckingItemSkipPolicy(skipLimit, exceptionClasses(skippableExceptions));
+        this.retryPolicy = new SimpleRetryPolicy(retryLimit, exceptionClasses(retryableExceptions), true);
+        this.backOffPolicy = new ExponentialBackOffPolicy();
+        this.backOffPolicy.setInitialInterval(initialIntervalMillis);
+        this.backOffPolicy.setMultiplier(multiplier);
+        this.backOffPolicy.setMaxInterval(maxIntervalMillis);
+        this.rejectedDossierSkipListener = rejectedDossierSkipListener;
+    }
+
+    /**
+     * Makes a dossier step builder fault-tolerant, unless {@code dossier.step.fault-tolerant=false}.
+     *
+     * @param builder The chunk-oriented builder of the dossier step
+     * @return The fault-tolerant builder, or the given builder when disabled
+     */
+    public <O> SimpleStepBuilder<Dossier, O> apply(SimpleStepBuilder<Dossier, O> builder) {
+        if (!enabled) {
+            return builder;
+        }
+        return builder.faultTolerant()
+                .skipPolicy(skipPolicy)
+                .retryPolicy(retryPolicy)
+                .backOffPolicy(backOffPolicy)
+                .processorNonTransactional()
+                .listener((SkipListener<Dossier, Object>) rejectedDossierSkipListener);
+    }
+
+    /**
+     * @return Each named exception class mapped to true, as expected by the skip and retry policies
+     * @throws IllegalArgumentException if a name is not a {@link Throwable} class
+     */
+    private static Map<Class<? extends Throwable>, Boolean> exceptionClasses(String[] names) {
+        Map<Class<? extends Throwable>, Boolean> classes = new HashMap<>();
+        for (String name : names) {
+            Class<?> type;
+            try {
+                type = ClassUtils.forName(name.trim(), DossierStepFaultTolerance.class.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new IllegalArgumentException("Unknown exception class: " + name, e);
+            }
+            if (!Throwable.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Not an exception class: " + name);
+            }
+            classes.put(type.asSubclass(Throwable.class), true);
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,27 @@
+package ma.mini_project_insurance_claim_records.batch.listener;
+
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.service.DossiersContext;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link JobExecutionListener} that releases the dossier payload of a job execution
+ * from the {@link DossiersContext} as soon as the execution finishes, whatever its status.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@AllArgsConstructor
+public class DossierPayloadReleaseListener implements JobExecutionListener {
+
+    private final DossiersContext dossiersContext;
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        dossiersContext.release(jobExecution.getJobParameters().getString(DossiersContext.PAYLOAD_ID_PARAMETER));
+    }
+}
@@ -0,0 +1,37 @@
+package ma.mini_project_insurance_claim_records.batch.listener;
+
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.service.MedicationReferenceIndex;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link JobExecutionListener} that rebuilds the {@link MedicationReferenceIndex}
+ * once the reference medication import job has completed.
+ *
+ * The index is only swapped when the job finishes successfully, so a failed import
+ * keeps serving the previous reference table. The index is also told when the import
+ * starts, so it does not index a table that is still being filled.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@AllArgsConstructor
+public class MedicationReferenceIndexListener implements JobExecutionListener {
+
+    private final MedicationReferenceIndex medicationReferenceIndex;
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        medicationReferenceIndex.importStarted();
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        medicationReferenceIndex.importFinished(jobExecution.getStatus() == BatchStatus.COMPLETED);
+    }
+}
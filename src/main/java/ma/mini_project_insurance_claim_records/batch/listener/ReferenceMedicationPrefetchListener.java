@@ -0,0 +1,46 @@
+package ma.mini_project_insurance_claim_records.batch.listener;
+
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.service.ReferenceMedicationPrefetchCache;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prefetch stage for the dossier step.
+ *
+ * Spring Batch reads a whole chunk before processing it, so registering the product codes
+ * of every dossier as it is read lets the {@link ReferenceMedicationPrefetchCache} resolve
+ * the entire chunk with a single query when the first treatment is mapped. The codes of
+ * the step are dropped when it ends.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@AllArgsConstructor
+public class ReferenceMedicationPrefetchListener implements ItemReadListener<Dossier>, StepExecutionListener {
+
+    private final ReferenceMedicationPrefetchCache referenceMedicationPrefetchCache;
+
+    @Override
+    public void afterRead(Dossier dossier) {
+        if (!referenceMedicationPrefetchCache.isEnabled() || dossier.getTreatments() == null) {
+            return;
+        }
+        for (Treatment treatment : dossier.getTreatments()) {
+            referenceMedicationPrefetchCache.register(treatment.getCodeBarre());
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        referenceMedicationPrefetchCache.clear(stepExecution.getId());
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package ma.mini_project_insurance_claim_records.batch.listener;
+
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.service.RejectedDossierSink;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the dossiers rejected during a chunk of the dossier step to the
+ * {@link RejectedDossierSink}'s table.
+ *
+ * {@link ChunkListener} callbacks run once the chunk transaction has completed, and the
+ * sink writes in a transaction of its own, so rejections are stored whether the chunk
+ * commits or rolls back. Anything left is written when the step ends.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@AllArgsConstructor
+public class RejectedDossierFlushListener implements ChunkListener, StepExecutionListener {
+
+    private final RejectedDossierSink rejectedDossierSink;
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        rejectedDossierSink.flush();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        rejectedDossierSink.flush();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        rejectedDossierSink.flush();
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package ma.mini_project_insurance_claim_records.batch.listener;
+
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.service.RejectedDossierSink;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * {@link SkipListener} of the fault-tolerant dossier step that records every skipped
+ * dossier, with the exception that caused the skip, in the {@link RejectedDossierSink}.
+ *
+ * The written item is a {@code Future<Dossier>} when the step is pipelined, so both
+ * forms are accepted. A pipelined processor failure only surfaces when the writer unwraps
+ * the failed future, so it is reported as a write skip, and the future does not carry the
+ * input dossier. The delegate processor is therefore wrapped with
+ * {@link #recordingInputs(ItemProcessor)}, which remembers the input of every exception it
+ * throws; such a skip is then recorded as a {@code process} rejection with the affiliation
+ * number of its input, so the dossier can be resubmitted on its own. The rejections are
+ * written in batches by the {@link RejectedDossierFlushListener}.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class RejectedDossierSkipListener implements SkipListener<Dossier, Object> {
+
+    private final RejectedDossierSink rejectedDossierSink;
+
+    /** Input of every exception thrown by a wrapped processor and not yet skipped; weak so retried failures are dropped. */
+    private final Map<Throwable, Dossier> failedInputs = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public RejectedDossierSkipListener(RejectedDossierSink rejectedDossierSink) {
+        this.rejectedDossierSink = rejectedDossierSink;
+    }
+
+    /**
+     * Wraps a processor so that the input of each exception it throws can be found when
+     * the exception is skipped from a failed future.
+     *
+     * @param delegate The processor of the pipelined step
+     * @return A processor delegating to {@code delegate} and rethrowing its exceptions unchanged
+     */
+    public ItemProcessor<Dossier, Dossier> recordingInputs(ItemProcessor<Dossier, Dossier> delegate) {
+        return item -> {
+            try {
+                return delegate.process(item);
+            } catch (Exception e) {
+                failedInputs.put(e, item);
+                throw e;
+            }
+        };
+    }
+
+    @Override
+    public void onSkipInRead(Throwable t) {
+        rejectedDossierSink.reject(null, "read", describe(t));
+    }
+
+    @Override
+    public void onSkipInProcess(Dossier item, Throwable t) {
+        rejectedDossierSink.reject(item.getAffiliationNumber(), "process", describe(t));
+    }
+
+    @Override
+    public void onSkipInWrite(Object item, Throwable t) {
+        if (item instanceof Future<?> future && future.state() == Future.State.FAILED) {
+            // The processor failed: the writer only rethrew its exception
+            Throwable failure = future.exceptionNow();
+            Dossier input = failedInputs.remove(failure);
+            rejectedDossierSink.reject(input != null ? input.getAffiliationNumber() : null, "process", describe(failure));
+            return;
+        }
+        if (item instanceof Future<?> future) {
+            item = future.state() == Future.State.SUCCESS ? future.resultNow() : null;
+        }
+        rejectedDossierSink.reject(item instanceof Dossier dossier ? dossier.getAffiliationNumber() : null,
+                "write", describe(t));
+    }
+
+    /**
+     * @return The exception as {@code Type: message}, followed by its root cause if different
+     */
+    private static String describe(Throwable t) {
+        StringBuilder description = new StringBuilder(t.getClass().getSimpleName())
+                .append(": ").append(t.getMessage());
+        Throwable root = t;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        if (root != t) {
+            description.append("; caused by ").append(root.getClass().getSimpleName())
+                    .append(": ").append(root.getMessage());
+        }
+        return description.toString();
+    }
+}
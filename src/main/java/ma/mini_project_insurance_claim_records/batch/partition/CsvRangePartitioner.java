@@ -0,0 +1,62 @@
+package ma.mini_project_insurance_claim_records.batch.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link Partitioner} that splits a CSV file into contiguous byte ranges.
+ *
+ * The ranges are cut at fixed byte offsets, not at line boundaries. A line belongs to the
+ * range its first byte falls in: the worker reader skips the partial line at the start of
+ * its range and reads past the end of its range to finish the last line it started. Every
+ * line is therefore read by exactly one partition without scanning the file up front.
+ *
+ * Each range is stored in its partition's {@link ExecutionContext} under
+ * {@link #START_KEY} and {@link #END_KEY}, which is what lets a failed partition be
+ * restarted on its own.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class CsvRangePartitioner implements Partitioner {
+
+    /** First byte of the range, inclusive. */
+    public static final String START_KEY = "range.start";
+
+    /** End of the range, exclusive: a line starting at or after this offset belongs to the next range. */
+    public static final String END_KEY = "range.end";
+
+    private final Resource resource;
+
+    public CsvRangePartitioner(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long length;
+        try {
+            length = resource.contentLength();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot determine the size of " + resource.getDescription(), e);
+        }
+
+        int partitions = (int) Math.max(1, Math.min(gridSize, length));
+        long rangeSize = length / partitions;
+        Map<String, ExecutionContext> contexts = new HashMap<>(partitions * 2);
+        for (int i = 0; i < partitions; i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_KEY, i * rangeSize);
+            context.putLong(END_KEY, i == partitions - 1 ? length : (i + 1) * rangeSize);
+            contexts.put("partition" + i, context);
+        }
+        return contexts;
+    }
+}
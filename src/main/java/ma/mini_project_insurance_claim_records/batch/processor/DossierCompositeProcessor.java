@@ -1,13 +1,15 @@
 package ma.mini_project_insurance_claim_records.batch.processor;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Composite {@link ItemProcessor} that orchestrates the complete dossier processing pipeline.
@@ -23,13 +25,14 @@ import java.util.List;
  * Each processor transforms the data for the next stage. This pattern ensures clear
  * separation of concerns with each processor handling a single responsibility.
  * 
+ * The latency of every stage is recorded in the {@code batch.dossier.stage} timer, tagged
+ * with the stage name, so the slowest stage of the pipeline can be spotted in Prometheus.
+ * 
  * @author Yeasthetic
  * @version 1.0
  * @since 1.0
  */
 @Component
-@Primary
-@AllArgsConstructor
 public class DossierCompositeProcessor implements ItemProcessor<Dossier, Dossier> {
 
     private final DossierValidationProcessor dossierValidationProcessor;
@@ -37,28 +40,82 @@ public class DossierCompositeProcessor implements ItemProcessor<Dossier, Dossier
     private final TreatmentReimbursementProcessor treatmentReimbursementProcessor;
     private final TotalReimbursementProcessor totalReimbursementProcessor;
 
+    private final Timer validationTimer;
+    private final Timer mappingTimer;
+    private final Timer reimbursementTimer;
+    private final Timer totalTimer;
+
+    public DossierCompositeProcessor(DossierValidationProcessor dossierValidationProcessor,
+                                     DossierTreatmentMapper dossierTreatmentMapper,
+                                     TreatmentReimbursementProcessor treatmentReimbursementProcessor,
+                                     TotalReimbursementProcessor totalReimbursementProcessor,
+                                     MeterRegistry meterRegistry) {
+        this.dossierValidationProcessor = dossierValidationProcessor;
+        this.dossierTreatmentMapper = dossierTreatmentMapper;
+        this.treatmentReimbursementProcessor = treatmentReimbursementProcessor;
+        this.totalReimbursementProcessor = totalReimbursementProcessor;
+        this.validationTimer = stageTimer(meterRegistry, "validation");
+        this.mappingTimer = stageTimer(meterRegistry, "mapping");
+        this.reimbursementTimer = stageTimer(meterRegistry, "reimbursement");
+        this.totalTimer = stageTimer(meterRegistry, "total");
+    }
+
+    /**
+     * Creates the latency timer of one stage of the dossier step.
+     * Also used by the writer, so every stage is reported under the same meter name.
+     *
+     * @param meterRegistry The registry to register the timer in
+     * @param stage The stage name used as the {@code stage} tag
+     * @return The registered timer
+     */
+    public static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("batch.dossier.stage")
+                .description("Latency of each stage of the dossier step")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
     /**
      * Processes a dossier through the complete transformation pipeline.
      * 
      * @param dossier the dossier to process
-     * @return the fully processed dossier with calculated reimbursement amount
+     * @return the fully processed dossier with calculated reimbursement amount, or null if it was rejected
      * @throws Exception if any processor in the chain fails
      */
     @Override
     public Dossier process(Dossier dossier) throws Exception {
         // Step 1: Validate the dossier
+        long start = System.nanoTime();
         dossier = dossierValidationProcessor.process(dossier);
+        start = record(validationTimer, start);
+        if (dossier == null) {
+            // Rejected: filtered out of the step
+            return null;
+        }
         
         // Step 2: Map treatments to reference medications
         List<TreatmentProduct> treatmentProducts = dossierTreatmentMapper.process(dossier);
+        start = record(mappingTimer, start);
         
         // Step 3: Calculate reimbursement for each treatment
-        List<Double> reimbursedTreatments = treatmentReimbursementProcessor.process(treatmentProducts);
+        List<Money> reimbursedTreatments = treatmentReimbursementProcessor.process(treatmentProducts);
+        start = record(reimbursementTimer, start);
         
         // Step 4: Aggregate reimbursements and set total
-        Double totalReimbursement = totalReimbursementProcessor.process(reimbursedTreatments);
+        Money totalReimbursement = totalReimbursementProcessor.process(reimbursedTreatments);
         dossier.setReimbursedAmount(totalReimbursement);
+        record(totalTimer, start);
         
         return dossier;
     }
+
+    /**
+     * Records the time elapsed since {@code start} and returns the current time,
+     * which is the start of the next stage.
+     */
+    private static long record(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
 }
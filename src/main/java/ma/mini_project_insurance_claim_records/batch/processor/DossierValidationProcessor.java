@@ -1,82 +1,60 @@
 package ma.mini_project_insurance_claim_records.batch.processor;
 
+import lombok.AllArgsConstructor;
 import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.service.RejectedDossierSink;
+import ma.mini_project_insurance_claim_records.validation.DossierRules;
+import ma.mini_project_insurance_claim_records.validation.DossierValidationEngine;
+import ma.mini_project_insurance_claim_records.validation.ValidationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-
 /**
  * Spring Batch {@link ItemProcessor} for validating dossier data integrity.
  * 
  * This processor is the first step in the dossier processing pipeline. It validates
  * that all required fields are present and meet basic constraints before the dossier
- * is passed to downstream processors. This approach implements fail-fast behavior,
- * preventing resources from being wasted on invalid data.
+ * is passed to downstream processors, so no resources are spent on invalid data.
  * 
- * Validations performed:
- * <ul>
- *   <li>Affiliation number is not empty</li>
- *   <li>Insured person name is not empty</li>
- *   <li>Beneficiary name is not empty</li>
- *   <li>Dossier submission date is valid (not in the future)</li>
- *   <li>Consultation price is positive</li>
- *   <li>Total cost is positive</li>
- *   <li>Treatments list is not empty</li>
- * </ul>
+ * The checks are the rules of the {@link DossierValidationEngine}, configured with
+ * {@code dossier.validation.rules} (see {@link DossierRules}). Every rule is evaluated
+ * and nothing is thrown: an invalid dossier is sent to the {@link RejectedDossierSink}
+ * with all of its violations and filtered out of the step by returning null, so the
+ * valid dossiers of the same chunk are written without rolling the chunk back.
  * 
  * @author Yeasthetic
  * @version 1.0
  * @since 1.0
  */
 @Component
+@AllArgsConstructor
 public class DossierValidationProcessor implements ItemProcessor<Dossier, Dossier> {
-    
+    private static final Logger logger = LoggerFactory.getLogger(DossierValidationProcessor.class);
+
+    /** Stage recorded with the dossiers rejected by this processor. */
+    public static final String STAGE = "validation";
+
+    private final DossierValidationEngine dossierValidationEngine;
+    private final RejectedDossierSink rejectedDossierSink;
+
     /**
      * Validates a dossier's data integrity.
      * 
      * @param dossier the dossier to validate
-     * @return the validated dossier if all validations pass
-     * @throws IllegalArgumentException if any validation fails
+     * @return the dossier if every rule passes, null if it was rejected
      */
     @Override
-    public Dossier process(Dossier dossier) throws Exception {
-        // Validate Affiliation Number (should not be empty)
-        if (dossier.getAffiliationNumber() == null || dossier.getAffiliationNumber().isEmpty()) {
-            throw new IllegalArgumentException("Affiliation number is missing.");
-        }
-
-        // Validate Insured Name (should not be empty)
-        if (dossier.getInsuredName() == null || dossier.getInsuredName().isEmpty()) {
-            throw new IllegalArgumentException("Insured name is missing.");
-        }
-
-        // Validate Beneficiary Name (should not be empty)
-        if (dossier.getBeneficiaryName() == null || dossier.getBeneficiaryName().isEmpty()) {
-            throw new IllegalArgumentException("Beneficiary name is missing.");
-        }
-
-        // Validate Treatment Date (should be a valid date)
-        if (dossier.getDossierSubmissionDate() == null || dossier.getDossierSubmissionDate().isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("Invalid treatment date.");
-        }
-
-        // Validate Consultation Price (should be positive)
-        if (dossier.getPrixConsultation() <= 0) {
-            throw new IllegalArgumentException("Consultation price must be positive.");
-        }
-
-        // Validate Total Cost (should be positive)
-        if (dossier.getTotalCost() <= 0) {
-            throw new IllegalArgumentException("Total cost must be positive.");
-        }
-
-        // Validate Treatments (should not be empty)
-        if (dossier.getTreatments() == null || dossier.getTreatments().isEmpty()) {
-            throw new IllegalArgumentException("Dossier must contain at least one treatment");
+    public Dossier process(Dossier dossier) {
+        ValidationResult result = dossierValidationEngine.validate(dossier);
+        if (result.isValid()) {
+            return dossier;
         }
 
-        // Return the valid dossier
-        return dossier;
+        String reasons = result.describe();
+        logger.warn("Dossier {} rejected: {}", dossier.getAffiliationNumber(), reasons);
+        rejectedDossierSink.reject(dossier.getAffiliationNumber(), STAGE, reasons);
+        return null;
     }
 }
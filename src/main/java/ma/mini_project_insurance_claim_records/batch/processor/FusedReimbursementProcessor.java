@@ -0,0 +1,89 @@
+package ma.mini_project_insurance_claim_records.batch.processor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.service.ReferenceMedicationService;
+import ma.mini_project_insurance_claim_records.service.ReimbursementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pass alternative to {@link DossierCompositeProcessor}.
+ * 
+ * After validation, the treatments of the dossier are walked once: each one is mapped to
+ * its reference medication and its reimbursement is added to a {@code long} total in
+ * centimes. No list of products, no list of boxed amounts and no stream is created, so
+ * the only allocations left are those of the reference lookups themselves.
+ * 
+ * Amounts are rounded to the centime per treatment, exactly as in the staged path, so
+ * both processors produce the same {@link Money} total.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class FusedReimbursementProcessor implements ItemProcessor<Dossier, Dossier> {
+    private static final Logger logger = LoggerFactory.getLogger(FusedReimbursementProcessor.class);
+
+    private final DossierValidationProcessor dossierValidationProcessor;
+    private final ReferenceMedicationService referenceMedicationService;
+    private final ReimbursementService reimbursementService;
+    private final Timer validationTimer;
+    private final Timer fusedTimer;
+
+    public FusedReimbursementProcessor(DossierValidationProcessor dossierValidationProcessor,
+                                       ReferenceMedicationService referenceMedicationService,
+                                       ReimbursementService reimbursementService,
+                                       MeterRegistry meterRegistry) {
+        this.dossierValidationProcessor = dossierValidationProcessor;
+        this.referenceMedicationService = referenceMedicationService;
+        this.reimbursementService = reimbursementService;
+        this.validationTimer = DossierCompositeProcessor.stageTimer(meterRegistry, "validation");
+        this.fusedTimer = DossierCompositeProcessor.stageTimer(meterRegistry, "fused");
+    }
+
+    /**
+     * Validates a dossier and sets its reimbursed amount in one pass over its treatments.
+     * 
+     * @param dossier the dossier to process
+     * @return the processed dossier with calculated reimbursement amount, or null if it was rejected
+     * @throws Exception if a reference lookup fails
+     */
+    @Override
+    public Dossier process(Dossier dossier) throws Exception {
+        long start = System.nanoTime();
+        dossier = dossierValidationProcessor.process(dossier);
+        long validated = System.nanoTime();
+        validationTimer.record(validated - start, TimeUnit.NANOSECONDS);
+        if (dossier == null) {
+            return null;
+        }
+
+        long totalCentimes = 0;
+        List<Treatment> treatments = dossier.getTreatments();
+        for (int i = 0, size = treatments.size(); i < size; i++) {
+            Treatment treatment = treatments.get(i);
+            TreatmentProduct referenceProduct = referenceMedicationService.getReferenceMedication(
+                    treatment.getCodeBarre(), treatment.getNomMedicament(), treatment.getPrixMedicament());
+            if (referenceProduct != null) {
+                totalCentimes = Math.addExact(totalCentimes, reimbursementService.calculateReimbursementCentimes(referenceProduct));
+            } else {
+                logger.debug("No reference medication found for: {}", treatment.getNomMedicament());
+            }
+        }
+        dossier.setReimbursedAmount(Money.ofCentimes(totalCentimes));
+
+        fusedTimer.record(System.nanoTime() - validated, TimeUnit.NANOSECONDS);
+        return dossier;
+    }
+}
@@ -0,0 +1,22 @@
+package ma.mini_project_insurance_claim_records.batch.processor;
+
+/**
+ * Selects the {@link org.springframework.batch.item.ItemProcessor} of the dossier step, and
+ * whether its writer computes the amounts first, through the {@code reimbursement.processing.mode} property.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public enum ReimbursementProcessingMode {
+    /** {@link DossierCompositeProcessor}: the four processors chained, with a timer per stage. */
+    STAGED,
+    /** {@link FusedReimbursementProcessor}: one pass over the treatments, accumulating centimes. */
+    FUSED,
+    /**
+     * {@link DossierValidationProcessor} only; the amounts of the whole chunk are computed by the
+     * {@link ma.mini_project_insurance_claim_records.batch.processor.columnar.ColumnarReimbursementCalculator}
+     * before it is written.
+     */
+    COLUMNAR
+}
@@ -2,6 +2,7 @@ package ma.mini_project_insurance_claim_records.batch.processor;
 
 import lombok.AllArgsConstructor;
 import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.service.ReimbursementService;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.stereotype.Component;
@@ -10,7 +11,7 @@ import java.util.List;
 
 @Component
 @AllArgsConstructor
-public class TotalReimbursementProcessor implements ItemProcessor<List<Double>,Double> {
+public class TotalReimbursementProcessor implements ItemProcessor<List<Money>,Money> {
     //Responsibility:
     // Aggregates the reimbursement amount from consultation and treatments for each dossier.
     //Justification:
@@ -18,7 +19,7 @@ public class TotalReimbursementProcessor implements ItemProcessor<List<Double>,D
     ReimbursementService reimbursementService;
 
     @Override
-    public Double process(List<Double> reimbursedTreatments) throws Exception {
+    public Money process(List<Money> reimbursedTreatments) throws Exception {
         return reimbursementService.totalReimbursement(reimbursedTreatments);
     }
 
@@ -1,6 +1,7 @@
 package ma.mini_project_insurance_claim_records.batch.processor;
 
 import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
 import ma.mini_project_insurance_claim_records.service.ReimbursementService;
 import org.springframework.batch.item.ItemProcessor;
@@ -11,7 +12,7 @@ import java.util.stream.Collectors;
 
 @Component
 @AllArgsConstructor
-public class TreatmentReimbursementProcessor implements ItemProcessor<List<TreatmentProduct>,List<Double>> {
+public class TreatmentReimbursementProcessor implements ItemProcessor<List<TreatmentProduct>,List<Money>> {
     //Responsibility:
     // For each treatment, calculate the reimbursement amount based on the reference price
     // and reimbursement rate from the reference medication database.
@@ -20,7 +21,7 @@ public class TreatmentReimbursementProcessor implements ItemProcessor<List<Treat
 
     private final ReimbursementService reimbursementService;
 
-    public List<Double> process(List<TreatmentProduct> treatmentProducts) {
+    public List<Money> process(List<TreatmentProduct> treatmentProducts) {
         return treatmentProducts.stream()
                 .map(reimbursementService::calculateReimbursement)
                 .collect(Collectors.toList());
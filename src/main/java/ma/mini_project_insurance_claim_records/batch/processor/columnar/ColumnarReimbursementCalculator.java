@@ -0,0 +1,108 @@
+package ma.mini_project_insurance_claim_records.batch.processor.columnar;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ma.mini_project_insurance_claim_records.batch.processor.DossierCompositeProcessor;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.service.ReferenceMedicationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the reimbursed amount of a whole chunk of dossiers at once.
+ *
+ * The treatments of every dossier of the chunk are resolved to their reference medication
+ * and laid out as two primitive columns, the base price in centimes and the reimbursement
+ * rate in basis points, with the end of each dossier's segment recorded alongside. A
+ * {@link ReimbursementKernel} then computes the reimbursement of every line in one pass
+ * over the columns, and each dossier's total is the sum of its segment.
+ *
+ * The {@link VectorReimbursementKernel} is used when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector}, unless
+ * {@code reimbursement.columnar.vector.enabled=false}; the {@link ScalarReimbursementKernel}
+ * otherwise. Both round each line half up to the centime like
+ * {@link ma.mini_project_insurance_claim_records.service.ReimbursementService}, so every
+ * processing mode produces the same amounts. Chunks are timed in the
+ * {@code batch.dossier.stage} timer, tagged {@code stage=columnar}.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class ColumnarReimbursementCalculator {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarReimbursementCalculator.class);
+
+    private final ReferenceMedicationService referenceMedicationService;
+    private final ReimbursementKernel kernel;
+    private final Timer columnarTimer;
+
+    public ColumnarReimbursementCalculator(ReferenceMedicationService referenceMedicationService,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${reimbursement.columnar.vector.enabled:true}") boolean vectorEnabled) {
+        this.referenceMedicationService = referenceMedicationService;
+        this.kernel = ReimbursementKernels.select(vectorEnabled);
+        this.columnarTimer = DossierCompositeProcessor.stageTimer(meterRegistry, "columnar");
+        logger.info("Columnar reimbursement uses the {} kernel", kernel.name());
+    }
+
+    /**
+     * Sets the reimbursed amount of every dossier of a chunk.
+     *
+     * @param dossiers The dossiers of the chunk, already validated
+     */
+    public void calculate(List<? extends Dossier> dossiers) {
+        long start = System.nanoTime();
+
+        int lines = 0;
+        for (Dossier dossier : dossiers) {
+            lines += dossier.getTreatments() != null ? dossier.getTreatments().size() : 0;
+        }
+        long[] centimes = new long[lines];
+        long[] basisPoints = new long[lines];
+        int[] segmentEnds = new int[dossiers.size()];
+
+        // Columns: one line per treatment with a reference medication
+        int length = 0;
+        for (int d = 0; d < dossiers.size(); d++) {
+            List<Treatment> treatments = dossiers.get(d).getTreatments();
+            if (treatments != null) {
+                for (Treatment treatment : treatments) {
+                    TreatmentProduct product = referenceMedicationService.getReferenceMedication(
+                            treatment.getCodeBarre(), treatment.getNomMedicament(), treatment.getPrixMedicament());
+                    if (product != null && product.getPRIXBR() != null) {
+                        centimes[length] = product.getPRIXBR().centimes();
+                        basisPoints[length] = Money.basisPoints(product.getTAUXREMBOURSEMENT());
+                        length++;
+                    } else {
+                        logger.debug("No reference medication found for: {}", treatment.getNomMedicament());
+                    }
+                }
+            }
+            segmentEnds[d] = length;
+        }
+
+        long[] reimbursed = new long[length];
+        kernel.multiply(centimes, basisPoints, reimbursed, length);
+
+        // Segmented sums: one total per dossier
+        int line = 0;
+        for (int d = 0; d < dossiers.size(); d++) {
+            long totalCentimes = 0;
+            for (int end = segmentEnds[d]; line < end; line++) {
+                totalCentimes = Math.addExact(totalCentimes, reimbursed[line]);
+            }
+            dossiers.get(d).setReimbursedAmount(Money.ofCentimes(totalCentimes));
+        }
+
+        columnarTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,32 @@
+package ma.mini_project_insurance_claim_records.batch.processor.columnar;
+
+/**
+ * Line-wise reimbursement arithmetic over the columns of a chunk.
+ *
+ * Implementations must return, for every line, exactly what
+ * {@link ma.mini_project_insurance_claim_records.model.Money#multiplyCentimes(long, long)}
+ * returns, so the columnar path and the per-dossier processors always agree to the centime.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ReimbursementKernel {
+
+    /**
+     * Computes {@code centimes[i] * basisPoints[i]}, rounded half up to the centime,
+     * for every line {@code i < length}.
+     *
+     * @param centimes The base price of each line, in centimes
+     * @param basisPoints The reimbursement rate of each line, in basis points
+     * @param reimbursed Receives the reimbursement of each line, in centimes
+     * @param length The number of lines
+     * @throws ArithmeticException if a line overflows a {@code long}
+     */
+    void multiply(long[] centimes, long[] basisPoints, long[] reimbursed, int length);
+
+    /**
+     * @return A short name for logs and meter tags
+     */
+    String name();
+}
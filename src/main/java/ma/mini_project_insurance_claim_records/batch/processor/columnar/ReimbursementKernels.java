@@ -0,0 +1,50 @@
+package ma.mini_project_insurance_claim_records.batch.processor.columnar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chooses the {@link ReimbursementKernel} of the running JVM.
+ *
+ * The {@link VectorReimbursementKernel} is the only class compiled against
+ * {@code jdk.incubator.vector}, in its own compiler execution, so it is loaded by name
+ * and nothing else needs the module to compile.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ReimbursementKernels {
+    private static final Logger logger = LoggerFactory.getLogger(ReimbursementKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final String VECTOR_KERNEL = ReimbursementKernels.class.getPackageName() + ".VectorReimbursementKernel";
+
+    private ReimbursementKernels() {
+    }
+
+    /**
+     * @param vectorEnabled false to always use the scalar kernel
+     * @return The {@link VectorReimbursementKernel} if enabled and the Vector API module is
+     *         present, the {@link ScalarReimbursementKernel} otherwise
+     */
+    public static ReimbursementKernel select(boolean vectorEnabled) {
+        if (vectorEnabled && isVectorApiAvailable()) {
+            try {
+                return Class.forName(VECTOR_KERNEL).asSubclass(ReimbursementKernel.class)
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Vector API present but unusable, using the scalar reimbursement kernel", e);
+            }
+        }
+        return new ScalarReimbursementKernel();
+    }
+
+    /**
+     * @return true if the JVM was started with {@code --add-modules jdk.incubator.vector}
+     */
+    public static boolean isVectorApiAvailable() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+}
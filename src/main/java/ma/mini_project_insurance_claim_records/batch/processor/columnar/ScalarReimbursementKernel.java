@@ -0,0 +1,35 @@
+package ma.mini_project_insurance_claim_records.batch.processor.columnar;
+
+import ma.mini_project_insurance_claim_records.model.Money;
+
+/**
+ * Portable {@link ReimbursementKernel}: one {@link Money#multiplyCentimes(long, long)} per line.
+ *
+ * Used when the JDK Vector API is not available, and by the vector kernel for the tail
+ * of the columns and for lines outside its exact range.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class ScalarReimbursementKernel implements ReimbursementKernel {
+
+    @Override
+    public void multiply(long[] centimes, long[] basisPoints, long[] reimbursed, int length) {
+        multiply(centimes, basisPoints, reimbursed, 0, length);
+    }
+
+    /**
+     * Same as {@link #multiply(long[], long[], long[], int)}, over the lines {@code [from, to)}.
+     */
+    static void multiply(long[] centimes, long[] basisPoints, long[] reimbursed, int from, int to) {
+        for (int i = from; i < to; i++) {
+            reimbursed[i] = Money.multiplyCentimes(centimes[i], basisPoints[i]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
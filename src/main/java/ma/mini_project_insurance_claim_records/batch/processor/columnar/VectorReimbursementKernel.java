@@ -0,0 +1,83 @@
+package ma.mini_project_insurance_claim_records.batch.processor.columnar;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import ma.mini_project_insurance_claim_records.model.Money;
+
+/**
+ * {@link ReimbursementKernel} on the JDK Vector API ({@code jdk.incubator.vector}).
+ *
+ * Each block of lanes is multiplied in {@code long}, then divided by
+ * {@link Money#BASIS_POINTS} with round-half-up. SIMD units have no 64-bit integer
+ * division, so the quotient is estimated through {@code double} and corrected by one in
+ * either direction; the estimate is off by less than one as long as the product stays
+ * below 2<sup>53</sup>. The estimate is brought back to {@code long} by reading the bits of
+ * {@code estimate + 2^52}, since the {@code double} to {@code long} lane conversion is not
+ * compiled to a SIMD instruction on every JDK. Blocks holding a negative value, or a value large enough to break
+ * that bound, are computed by the {@link ScalarReimbursementKernel}, as is the tail of the
+ * columns, so the result is always identical to the scalar one.
+ *
+ * Only instantiated by {@link ReimbursementKernels} when the {@code jdk.incubator.vector}
+ * module is present, i.e. when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class VectorReimbursementKernel implements ReimbursementKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /** Largest rate computed in lanes: 100 times the base price. */
+    private static final long MAX_LANE_BASIS_POINTS = 100 * Money.BASIS_POINTS;
+
+    /** Largest base price computed in lanes, so that price * rate + half stays below 2^53. */
+    private static final long MAX_LANE_CENTIMES = ((1L << 53) - Money.BASIS_POINTS) / MAX_LANE_BASIS_POINTS;
+
+    private static final double INVERSE_BASIS_POINTS = 1.0 / Money.BASIS_POINTS;
+
+    /** Adding 2^52 to a double in [0, 2^52) rounds it to an integer held in the low bits of its encoding. */
+    private static final double TWO_POW_52 = 0x1p52;
+    private static final long TWO_POW_52_BITS = Double.doubleToRawLongBits(TWO_POW_52);
+
+    @Override
+    public void multiply(long[] centimes, long[] basisPoints, long[] reimbursed, int length) {
+        int step = SPECIES.length();
+        int upperBound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += step) {
+            LongVector price = LongVector.fromArray(SPECIES, centimes, i);
+            LongVector rate = LongVector.fromArray(SPECIES, basisPoints, i);
+
+            VectorMask<Long> outOfRange = price.compare(VectorOperators.LT, 0)
+                    .or(price.compare(VectorOperators.GT, MAX_LANE_CENTIMES))
+                    .or(rate.compare(VectorOperators.LT, 0))
+                    .or(rate.compare(VectorOperators.GT, MAX_LANE_BASIS_POINTS));
+            if (outOfRange.anyTrue()) {
+                ScalarReimbursementKernel.multiply(centimes, basisPoints, reimbursed, i, i + step);
+                continue;
+            }
+
+            // floor((price * rate + half) / BASIS_POINTS), i.e. round half up
+            LongVector product = price.mul(rate).add(Money.BASIS_POINTS / 2);
+            DoubleVector estimate = ((DoubleVector) product.convert(VectorOperators.L2D, 0))
+                    .mul(INVERSE_BASIS_POINTS)
+                    .add(TWO_POW_52);
+            LongVector quotient = estimate.reinterpretAsLongs().sub(TWO_POW_52_BITS);
+            LongVector remainder = product.sub(quotient.mul(Money.BASIS_POINTS));
+            quotient = quotient
+                    .sub(1, remainder.compare(VectorOperators.LT, 0))
+                    .add(1, remainder.compare(VectorOperators.GE, Money.BASIS_POINTS));
+            quotient.intoArray(reimbursed, i);
+        }
+        ScalarReimbursementKernel.multiply(centimes, basisPoints, reimbursed, i, length);
+    }
+
+    @Override
+    public String name() {
+        return "vector";
+    }
+}
@@ -1,83 +1,261 @@
 package ma.mini_project_insurance_claim_records.batch.reader;
 
+import ma.mini_project_insurance_claim_records.batch.partition.CsvRangePartitioner;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
-import org.springframework.batch.item.ItemReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Streaming reader of the CNOPS reference medication file.
+ *
+ * The file is opened in {@link #open(ExecutionContext)} and read through a reusable byte
+ * buffer, one line at a time; rows are never accumulated in memory and nothing is read
+ * while the application starts. Each line is split by a {@link CsvLineTokenizer} directly
+ * inside the buffer, and only the columns mapped to {@link TreatmentProduct} are decoded.
+ *
+ * When the step execution context holds a byte range from {@link CsvRangePartitioner},
+ * only the lines starting inside {@code [start, end)} are read: the reader positions
+ * itself on the byte before {@code start} and discards everything up to the next newline,
+ * which belongs to the previous range. Without a range the whole file is read.
+ *
+ * The offset of the next line is saved in the step execution context on every commit,
+ * so a restarted step seeks straight to the first line it has not written yet.
+ *
+ * Rows with too few columns or an unparsable number are skipped and counted in
+ * {@link #getRejectedRows()}, so that callers relying on the file being complete can
+ * tell a missing row from a row that could not be read.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
 @Component
-public class CsvItemReader implements ItemReader<TreatmentProduct> {
+@StepScope
+public class CsvItemReader implements ItemStreamReader<TreatmentProduct> {
+    private static final Logger logger = LoggerFactory.getLogger(CsvItemReader.class);
 
-    private final Iterator<TreatmentProduct> iterator;
+    /** Offset of the next line to read, saved on every commit. */
+    public static final String POSITION_KEY = "csv.position";
 
-    public CsvItemReader(@Value("${file.input}") String fileInput) throws Exception {
+    // HEADER: CODE,NOM,DCI1,DOSAGE1,UNITE_DOSAGE1,FORME,PRESENTATION,PPV,PH,PRIX_BR,PRINCEPS_GENERIQUE,TAUX_REMBOURSEMENT
+    private static final int COLUMNS = 12;
+    private static final int CODE = 0;
+    private static final int NOM = 1;
+    private static final int DCI1 = 2;
+    private static final int PRIX_BR = 9;
+    private static final int TAUX_REMBOURSEMENT = 11;
+
+    private final Resource resource;
+    private final long start;
+    private final long end;
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+
+    private InputStream input;
+    private byte[] buffer = new byte[64 * 1024];
+    private int head;
+    private int tail;
+    private int lineStart;
+    private int lineEnd;
+
+    /** File offset of {@code buffer[head]}, which is the start of the next line. */
+    private long position;
+
+    /** Number of rows skipped because they could not be mapped, since {@link #open(ExecutionContext)}. */
+    private int rejectedRows;
+
+    public CsvItemReader(@Value("${file.input}") String fileInput,
+                         @Value("#{stepExecutionContext['" + CsvRangePartitioner.START_KEY + "']}") Long start,
+                         @Value("#{stepExecutionContext['" + CsvRangePartitioner.END_KEY + "']}") Long end) {
         // Load file from resources using ClassPathResource
-        Resource resource = new ClassPathResource(fileInput);
-
-        List<TreatmentProduct> products = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            boolean isFirstLine = true; // To skip the header
-
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false; // Skip header line
-                    continue;
-                }
+        this.resource = new ClassPathResource(fileInput);
+        this.start = start != null ? start : 0;
+        this.end = end != null ? end : Long.MAX_VALUE;
+    }
 
-                if (line.trim().isEmpty()) {
-                    continue; // Skip empty lines
-                }
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            input = resource.getInputStream();
+            head = 0;
+            tail = 0;
+            position = 0;
+            rejectedRows = 0;
+            if (executionContext.containsKey(POSITION_KEY)) {
+                // Restart: the saved offset is always the first byte of a line
+                skip(executionContext.getLong(POSITION_KEY));
+            } else if (start == 0) {
+                nextLine(); // Skip header line
+            } else {
+                // The line around start belongs to the previous range, unless start is its first byte
+                skip(start - 1);
+                nextLine();
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Cannot open " + resource.getDescription() + " at offset " + start, e);
+        }
+    }
 
-                // The split logic is correct for handling commas within quoted fields,
-                // but the regex validation was incorrect for the file structure.
-                String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+    @Override
+    public TreatmentProduct read() throws Exception {
+        // A line belongs to this reader when its first byte is before the end of the range
+        while (position < end && nextLine()) {
+            if (isBlank()) {
+                continue; // Skip empty lines
+            }
+            TreatmentProduct product = mapLine();
+            if (product != null) {
+                return product;
+            }
+        }
+        return null; // End of data
+    }
 
-                // Your CSV file has 12 columns. Let's ensure the row has enough data.
-                // HEADER: CODE,NOM,DCI1,DOSAGE1,UNITE_DOSAGE1,FORME,PRESENTATION,PPV,PH,PRIX_BR,PRINCEPS_GENERIQUE,TAUX_REMBOURSEMENT
-                if (fields.length < 12) {
-                    System.err.println("Skipping invalid row (not enough columns): " + line);
-                    continue;
-                }
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(POSITION_KEY, position);
+    }
+
+    /**
+     * @return The number of rows skipped because they had too few columns or an unparsable number
+     */
+    public int getRejectedRows() {
+        return rejectedRows;
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (input == null) {
+            return;
+        }
+        try {
+            input.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Cannot close " + resource.getDescription(), e);
+        } finally {
+            input = null;
+        }
+    }
+
+    /**
+     * Maps the current line to a {@link TreatmentProduct}.
+     *
+     * @return The product, or null if the row is invalid and must be skipped
+     */
+    private TreatmentProduct mapLine() {
+        // Your CSV file has 12 columns. Let's ensure the row has enough data.
+        if (tokenizer.tokenize(buffer, lineStart, lineEnd) < COLUMNS) {
+            logger.warn("Skipping invalid row (not enough columns): {}", currentLine());
+            rejectedRows++;
+            return null;
+        }
+
+        try {
+            return new TreatmentProduct(
+                    Long.parseLong(tokenizer.raw(CODE)),
+                    tokenizer.text(NOM),
+                    tokenizer.text(DCI1),
+                    Money.parse(tokenizer.raw(PRIX_BR)),
+                    Double.parseDouble(tokenizer.raw(TAUX_REMBOURSEMENT))
+            );
+        } catch (NumberFormatException e) {
+            logger.warn("Skipping row due to number format error: {}", currentLine());
+            rejectedRows++;
+            return null;
+        }
+    }
 
-                try {
-                    // We need to map to TreatmentProduct using the correct column indices.
-                    // CODE is at index 0
-                    // NOM is at index 1
-                    // DCI1 is at index 2
-                    // PRIX_BR is at index 9
-                    // TAUX_REMBOURSEMENT is at index 11
-                    TreatmentProduct product = new TreatmentProduct(
-                            Long.parseLong(fields[0].trim()),            // CODE (index 0)
-                            fields[1].replace("\"", "").trim(),          // NOM (index 1)
-                            fields[2].replace("\"", "").trim(),          // DCI1 (index 2)
-                            Double.parseDouble(fields[9].trim()),        // PRIX_BR (index 9)
-                            Double.parseDouble(fields[11].trim())        // TAUX_REMBOURSEMENT (index 11)
-                    );
-                    products.add(product);
-                } catch (NumberFormatException e) {
-                    System.err.println("Skipping row due to number format error: " + line);
-                } catch (ArrayIndexOutOfBoundsException e) {
-                    System.err.println("Skipping row due to missing columns: " + line);
+    /**
+     * Moves to the next line of the buffer, refilling it as needed.
+     *
+     * @return false at the end of the file
+     */
+    private boolean nextLine() throws IOException {
+        int scan = head;
+        while (true) {
+            while (scan < tail && buffer[scan] != '\n') {
+                scan++;
+            }
+            if (scan < tail) {
+                setLine(scan, scan + 1);
+                return true;
+            }
+            int scanned = scan - head;
+            if (!fill()) {
+                if (head == tail) {
+                    return false;
                 }
+                setLine(tail, tail); // Last line without a newline
+                return true;
             }
+            scan = head + scanned;
+        }
+    }
+
+    /**
+     * Sets the current line to {@code buffer[head, terminator)} and moves past it.
+     */
+    private void setLine(int terminator, int next) {
+        lineStart = head;
+        lineEnd = terminator;
+        if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+            lineEnd--;
         }
+        position += next - head;
+        head = next;
+    }
 
-        this.iterator = products.iterator();
+    /**
+     * Moves the unread bytes to the front of the buffer, growing it if a single line
+     * fills it, and reads more bytes after them.
+     *
+     * @return false at the end of the file
+     */
+    private boolean fill() throws IOException {
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        if (tail == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = input.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            return false;
+        }
+        tail += read;
+        return true;
     }
 
-    @Override
-    public TreatmentProduct read() {
-        return iterator.hasNext() ? iterator.next() : null; // Return next item or null to indicate end of data
+    private void skip(long offset) throws IOException {
+        input.skipNBytes(offset);
+        position = offset;
+    }
+
+    private boolean isBlank() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if ((buffer[i] & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String currentLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
     }
 }
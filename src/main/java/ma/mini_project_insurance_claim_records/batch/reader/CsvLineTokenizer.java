@@ -0,0 +1,119 @@
+package ma.mini_project_insurance_claim_records.batch.reader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass, quote-aware tokenizer for the lines of the CNOPS reference file.
+ *
+ * A line is tokenized in place inside the caller's byte buffer: only the start and end
+ * offsets of each field are recorded, and a field is turned into a {@link String} only
+ * when it is asked for. Commas inside double quotes do not separate fields, and trailing
+ * empty fields are dropped, which gives the same fields as the
+ * {@code line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")} it replaces for every line with
+ * balanced quotes, without a regular expression or the quadratic quote lookahead.
+ *
+ * Separators and quotes are ASCII, so they can never appear inside a multi-byte UTF-8
+ * sequence and a line can be split before it is decoded. One instance is reused for
+ * every line; it is not thread-safe.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class CsvLineTokenizer {
+
+    private byte[] line;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Splits {@code line[from, to)} into fields.
+     *
+     * @param line The buffer holding the line
+     * @param from Offset of the first byte of the line
+     * @param to Offset just past the last byte of the line, line terminator excluded
+     * @return The number of fields
+     */
+    public int tokenize(byte[] line, int from, int to) {
+        this.line = line;
+        count = 0;
+        boolean quoted = false;
+        int fieldStart = from;
+        for (int i = from; i < to; i++) {
+            byte b = line[i];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == ',' && !quoted) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, to);
+
+        // Like String.split, drop trailing empty fields
+        while (count > 0 && starts[count - 1] == ends[count - 1]) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of fields of the last tokenized line
+     */
+    public int fieldCount() {
+        return count;
+    }
+
+    /**
+     * Returns a field decoded as UTF-8 and trimmed, quotes included. Used for numeric columns.
+     *
+     * @param index The field index
+     * @return The trimmed field
+     */
+    public String raw(int index) {
+        int start = starts[index];
+        return new String(line, start, ends[index] - start, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Returns a text field decoded as UTF-8, with every double quote removed and trimmed.
+     *
+     * @param index The field index
+     * @return The field text
+     */
+    public String text(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        int quote = start;
+        while (quote < end && line[quote] != '"') {
+            quote++;
+        }
+        if (quote == end) {
+            return new String(line, start, end - start, StandardCharsets.UTF_8).trim();
+        }
+
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            if (line[i] != '"') {
+                scratch[length++] = line[i];
+            }
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8).trim();
+    }
+
+    private void addField(int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+}
@@ -3,52 +3,56 @@ package ma.mini_project_insurance_claim_records.batch.reader;
 import ma.mini_project_insurance_claim_records.dto.DossierDTO;
 import ma.mini_project_insurance_claim_records.dto.TreatmentDTO;
 import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.service.DossierSource;
 import ma.mini_project_insurance_claim_records.service.DossiersContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Step-scoped {@link ItemReader} converting the submitted {@link DossierDTO}s into {@link Dossier} entities.
+ * 
+ * A new reader is created for every step execution and reads from the
+ * {@link DossierSource} registered under the {@code payloadId} job parameter, so
+ * concurrent job executions each read their own payload.
+ * 
+ * The reader holds no mutable state of its own and every {@link DossierSource} hands
+ * out dossiers atomically, so it can be shared by the threads of a multi-threaded step.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
 @Component
+@StepScope
 public class DossierJsonReader implements ItemReader<Dossier> {
     private static final Logger logger = LoggerFactory.getLogger(DossierJsonReader.class);
 
-    private final DossiersContext dossiersContext;
-    private Iterator<DossierDTO> dossierIterator;
+    private final DossierSource dossierSource;
 
-    public DossierJsonReader(DossiersContext dossiersContext) {
-        this.dossiersContext = dossiersContext;
+    public DossierJsonReader(DossiersContext dossiersContext,
+                             @Value("#{jobParameters['payloadId']}") String payloadId) {
+        this.dossierSource = dossiersContext.getSource(payloadId);
     }
 
     @Override
     public Dossier read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-        // Initialize iterator if not already initialized
-        if (dossierIterator == null) {
-            List<DossierDTO> dossiers = dossiersContext.getDossiers();
-            logger.info("Initializing iterator with {} dossiers", dossiers.size());
-
-            // Log details of each dossier
-            for (int i = 0; i < dossiers.size(); i++) {
-                DossierDTO dossier = dossiers.get(i);
-                logger.info("Dossier {}: {}", i + 1, dossierToString(dossier));
-            }
-
-            dossierIterator = dossiers.iterator();
-        }
-
-        // Read next dossier
-        if (dossierIterator.hasNext()) {
-            DossierDTO dossierDTO = dossierIterator.next();
+        // Pull the next dossier from the source of the current job execution
+        DossierDTO dossierDTO = dossierSource.next();
 
+        if (dossierDTO != null) {
             logger.info("Reading DossierDTO: {}", dossierToString(dossierDTO));
 
             Dossier dossier = convertToDossier(dossierDTO);
@@ -57,7 +61,7 @@ public class DossierJsonReader implements ItemReader<Dossier> {
             return dossier;
         }
 
-        logger.warn("No more DossierDTOs to read. Iterator is empty.");
+        logger.warn("No more DossierDTOs to read. Source is exhausted.");
         return null; // End of data
     }
 
@@ -76,8 +80,8 @@ public class DossierJsonReader implements ItemReader<Dossier> {
         dossier.setLienParente(dossierDTO.getLienParente());
         dossier.setDossierSubmissionDate(dossierDTO.getDateDepotDossier());
         dossier.setNombrePiecesJointes(dossierDTO.getNombrePiecesJointes());
-        dossier.setPrixConsultation(dossierDTO.getPrixConsultation());
-        dossier.setTotalCost(dossierDTO.getMontantTotalFrais());
+        dossier.setPrixConsultation(Money.of(dossierDTO.getPrixConsultation()));
+        dossier.setTotalCost(Money.of(dossierDTO.getMontantTotalFrais()));
         dossier.setTreatmentDate(LocalDate.now());
         // Convert treatments with additional logging
         List<Treatment> treatments = convertTreatments(dossierDTO.getTraitements());
@@ -105,7 +109,7 @@ public class DossierJsonReader implements ItemReader<Dossier> {
             treatment.setCodeBarre(traitementDTO.getCodeBarre());
             treatment.setNomMedicament(traitementDTO.getNomMedicament());
             treatment.setTypeMedicament(traitementDTO.getTypeMedicament());
-            treatment.setPrixMedicament(traitementDTO.getPrixMedicament());
+            treatment.setPrixMedicament(Money.of(traitementDTO.getPrixMedicament()));
             treatment.setExiste(traitementDTO.isExiste());
 
             treatments.add(treatment);
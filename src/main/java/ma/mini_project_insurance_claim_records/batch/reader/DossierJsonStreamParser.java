@@ -0,0 +1,64 @@
+package ma.mini_project_insurance_claim_records.batch.reader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+import ma.mini_project_insurance_claim_records.service.StreamingDossierSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+
+/**
+ * Incremental parser for a JSON array of dossiers.
+ * 
+ * Walks the array token by token with a Jackson {@link JsonParser} and binds one
+ * {@link DossierDTO} at a time, handing each one to a {@link StreamingDossierSource}.
+ * Only the dossier being bound and the dossiers waiting in the source's buffer are
+ * held in memory, whatever the size of the payload.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@AllArgsConstructor
+public class DossierJsonStreamParser {
+    private static final Logger logger = LoggerFactory.getLogger(DossierJsonStreamParser.class);
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Parses a JSON array of dossiers into the given source, then completes it.
+     * 
+     * Any parsing error is recorded on the source so that the batch reader fails with it.
+     * Parsing stops early if the source is closed by its consumer.
+     * 
+     * @param body The JSON payload, starting with an array
+     * @param source The source receiving the parsed dossiers
+     */
+    public void parse(InputStream body, StreamingDossierSource source) {
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of dossiers");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                DossierDTO dossier = objectMapper.readValue(parser, DossierDTO.class);
+                if (!source.put(dossier)) {
+                    logger.warn("Dossier source closed after {} dossiers, stopping the parser", count);
+                    return;
+                }
+                count++;
+            }
+            source.complete();
+            logger.info("Parsed {} dossiers from the request stream", count);
+        } catch (Exception e) {
+            logger.error("Failed to parse dossier stream after {} dossiers", count, e);
+            source.fail(e);
+        }
+    }
+}
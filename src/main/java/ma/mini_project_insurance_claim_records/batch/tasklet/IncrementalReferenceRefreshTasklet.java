@@ -0,0 +1,214 @@
+package ma.mini_project_insurance_claim_records.batch.tasklet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.mini_project_insurance_claim_records.batch.reader.CsvItemReader;
+import ma.mini_project_insurance_claim_records.batch.writer.csv.TreatmentProductJdbcBatchWriter;
+import ma.mini_project_insurance_claim_records.dto.ReferenceChangeSet;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.service.ReferenceFileFingerprintService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Tasklet} that brings the reference medication table in line with the reference
+ * file by applying only what changed.
+ * 
+ * Every row of the file and of the table is reduced to a 64-bit hash of its code, name,
+ * DCI, base price and reimbursement rate. Comparing the two sets of hashes gives the
+ * products to insert, update and delete; unchanged products are not written at all.
+ * Inserts and updates go through {@link TreatmentProductJdbcBatchWriter} and deletes
+ * through a single {@code DELETE ... WHERE code = ANY(?)}, all in the step transaction.
+ * 
+ * The applied changes are published as a {@link ReferenceChangeSet}, counted in the
+ * {@code reference.refresh.rows} counter tagged by change, and recorded in the step
+ * execution's read, write and filter counts. The file's fingerprint is then stored so
+ * an unchanged file is skipped at the next startup.
+ * 
+ * A row the reader rejects is missing from the file's rows although its product may
+ * still be valid, so when any row is rejected nothing is deleted: inserts and updates
+ * are applied, the rejected rows are counted with {@code change=rejected}, and the
+ * fingerprint is not stored, so the refresh runs again at the next startup.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class IncrementalReferenceRefreshTasklet implements Tasklet {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalReferenceRefreshTasklet.class);
+
+    private static final String SELECT_PRODUCTS =
+            "SELECT code, nom, dci1, prixbr, tauxremboursement FROM treatment_product";
+
+    private static final String DELETE_PRODUCTS =
+            "DELETE FROM treatment_product WHERE code = ANY(?)";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TreatmentProductJdbcBatchWriter jdbcBatchWriter;
+    private final ReferenceFileFingerprintService referenceFileFingerprintService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final String fileInput;
+
+    public IncrementalReferenceRefreshTasklet(JdbcTemplate jdbcTemplate,
+                                              TreatmentProductJdbcBatchWriter jdbcBatchWriter,
+                                              ReferenceFileFingerprintService referenceFileFingerprintService,
+                                              ApplicationEventPublisher eventPublisher,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${file.input}") String fileInput) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcBatchWriter = jdbcBatchWriter;
+        this.referenceFileFingerprintService = referenceFileFingerprintService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.fileInput = fileInput;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        long start = System.nanoTime();
+        String fingerprint = referenceFileFingerprintService.fingerprint();
+
+        // Rows of the file, by code; a repeated code keeps its last row
+        Map<Long, TreatmentProduct> fileProducts = new LinkedHashMap<>();
+        int rejected;
+        CsvItemReader reader = new CsvItemReader(fileInput, null, null);
+        reader.open(new ExecutionContext());
+        try {
+            TreatmentProduct product;
+            while ((product = reader.read()) != null) {
+                fileProducts.put(product.getCODE(), product);
+                contribution.incrementReadCount();
+            }
+            rejected = reader.getRejectedRows();
+        } finally {
+            reader.close();
+        }
+
+        // Hashes of the rows currently stored
+        Map<Long, Long> storedHashes = new HashMap<>();
+        jdbcTemplate.query(SELECT_PRODUCTS, (RowCallbackHandler) resultSet -> storedHashes.put(
+                resultSet.getLong(1),
+                rowHash(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                        Money.of(resultSet.getBigDecimal(4)), resultSet.getDouble(5))));
+
+        List<Long> insertedCodes = new ArrayList<>();
+        List<Long> updatedCodes = new ArrayList<>();
+        List<TreatmentProduct> toWrite = new ArrayList<>();
+        for (TreatmentProduct product : fileProducts.values()) {
+            Long storedHash = storedHashes.remove(product.getCODE());
+            if (storedHash == null) {
+                insertedCodes.add(product.getCODE());
+                toWrite.add(product);
+            } else if (storedHash != rowHash(product)) {
+                updatedCodes.add(product.getCODE());
+                toWrite.add(product);
+            }
+        }
+        // Whatever is left in the table is no longer in the file, unless it was in a rejected row
+        List<Long> deletedCodes = rejected == 0 ? new ArrayList<>(storedHashes.keySet()) : List.of();
+        if (rejected > 0) {
+            logger.warn("{} rows of {} were rejected, keeping the {} stored products missing from it",
+                    rejected, fileInput, storedHashes.size());
+        }
+
+        if (!toWrite.isEmpty()) {
+            jdbcBatchWriter.write(new Chunk<>(toWrite));
+        }
+        if (!deletedCodes.isEmpty()) {
+            Long[] codes = deletedCodes.toArray(new Long[0]);
+            jdbcTemplate.update(DELETE_PRODUCTS, statement ->
+                    statement.setArray(1, statement.getConnection().createArrayOf("int8", codes)));
+        }
+        if (rejected == 0) {
+            referenceFileFingerprintService.record(fingerprint, fileProducts.size());
+        }
+
+        int unchanged = fileProducts.size() - toWrite.size();
+        contribution.incrementWriteCount(toWrite.size() + deletedCodes.size());
+        contribution.incrementFilterCount(unchanged);
+        countRows("inserted", insertedCodes.size());
+        countRows("updated", updatedCodes.size());
+        countRows("deleted", deletedCodes.size());
+        countRows("unchanged", unchanged);
+        countRows("rejected", rejected);
+
+        ReferenceChangeSet changeSet = new ReferenceChangeSet(fingerprint, insertedCodes, updatedCodes,
+                deletedCodes, unchanged, (System.nanoTime() - start) / 1_000_000);
+        ExecutionContext stepContext = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+        stepContext.putString("refresh.fingerprint", fingerprint);
+        stepContext.putInt("refresh.inserted", insertedCodes.size());
+        stepContext.putInt("refresh.updated", updatedCodes.size());
+        stepContext.putInt("refresh.deleted", deletedCodes.size());
+        stepContext.putInt("refresh.unchanged", unchanged);
+        stepContext.putInt("refresh.rejected", rejected);
+        eventPublisher.publishEvent(changeSet);
+
+        logger.info("Reference refresh applied {}: {} inserted, {} updated, {} deleted, {} unchanged, {} rejected in {} ms",
+                fileInput, insertedCodes.size(), updatedCodes.size(), deletedCodes.size(), unchanged, rejected,
+                changeSet.getDurationMillis());
+        return RepeatStatus.FINISHED;
+    }
+
+    private void countRows(String change, int rows) {
+        meterRegistry.counter("reference.refresh.rows", "change", change).increment(rows);
+    }
+
+    private static long rowHash(TreatmentProduct product) {
+        return rowHash(product.getCODE(), product.getNOM(), product.getDCI1(),
+                product.getPRIXBR(), product.getTAUXREMBOURSEMENT());
+    }
+
+    /**
+     * FNV-1a hash of every column of a reference product.
+     */
+    private static long rowHash(long code, String nom, String dci1, Money prixBr, double tauxRemboursement) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, code);
+        hash = mix(hash, nom);
+        hash = mix(hash, dci1);
+        hash = mix(hash, prixBr != null ? prixBr.centimes() : Long.MIN_VALUE);
+        hash = mix(hash, Double.doubleToLongBits(tauxRemboursement));
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xFF) * FNV_PRIME; // Not a valid UTF-8 byte, so distinct from any text
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        // Terminator, so ("AB", "C") and ("A", "BC") hash differently
+        return (hash ^ 0xFE) * FNV_PRIME;
+    }
+}
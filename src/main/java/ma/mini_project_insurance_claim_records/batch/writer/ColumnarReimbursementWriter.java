@@ -0,0 +1,28 @@
+package ma.mini_project_insurance_claim_records.batch.writer;
+
+import ma.mini_project_insurance_claim_records.batch.processor.columnar.ColumnarReimbursementCalculator;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+public class ColumnarReimbursementWriter implements ItemWriter<Dossier> {
+    //Responsibility:
+    // Computes the reimbursed amounts of the whole chunk, then hands the chunk to the delegate writer.
+    //Justification:
+    // The writer is the first place where Spring Batch exposes the chunk as a whole,
+    // which the column-oriented calculation needs; saving stays with the delegate.
+    private final ColumnarReimbursementCalculator columnarReimbursementCalculator;
+    private final ItemWriter<Dossier> delegate;
+
+    public ColumnarReimbursementWriter(ColumnarReimbursementCalculator columnarReimbursementCalculator,
+                                       ItemWriter<Dossier> delegate) {
+        this.columnarReimbursementCalculator = columnarReimbursementCalculator;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(Chunk<? extends Dossier> chunk) throws Exception {
+        columnarReimbursementCalculator.calculate(chunk.getItems());
+        delegate.write(chunk);
+    }
+}
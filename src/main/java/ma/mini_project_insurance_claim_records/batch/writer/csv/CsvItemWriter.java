@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -24,9 +25,9 @@ public class CsvItemWriter implements ItemWriter<TreatmentProduct> {
                 .map(TreatmentProduct::getCODE)
                 .collect(Collectors.toList());
 
-        List<Long> existingIds = repository.findAllById(ids).stream()
+        Set<Long> existingIds = repository.findAllById(ids).stream()
                 .map(TreatmentProduct::getCODE)
-                .toList();
+                .collect(Collectors.toSet());
 
         List<TreatmentProduct> itemsToSave = chunk.getItems().stream()
                 .filter(item -> !existingIds.contains(item.getCODE()))
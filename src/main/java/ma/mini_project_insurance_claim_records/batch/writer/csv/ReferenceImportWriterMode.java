@@ -0,0 +1,18 @@
+package ma.mini_project_insurance_claim_records.batch.writer.csv;
+
+/**
+ * Selects the {@link org.springframework.batch.item.ItemWriter} used by the reference
+ * medication import, through the {@code reference.import.writer} property.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public enum ReferenceImportWriterMode {
+    /** {@link CsvItemWriter}: JPA {@code saveAll} of the products not already stored. */
+    JPA,
+    /** {@link TreatmentProductJdbcBatchWriter}: one JDBC batch of {@code INSERT ... ON CONFLICT DO UPDATE}. */
+    JDBC_BATCH,
+    /** {@link TreatmentProductCopyWriter}: PostgreSQL {@code COPY} into a staging table, then one merge. */
+    COPY
+}
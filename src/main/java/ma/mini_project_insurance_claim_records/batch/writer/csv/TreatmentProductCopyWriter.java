@@ -0,0 +1,99 @@
+package ma.mini_project_insurance_claim_records.batch.writer.csv;
+
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import org.postgresql.PGConnection;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.Statement;
+
+@Component
+public class TreatmentProductCopyWriter implements ItemWriter<TreatmentProduct> {
+    //Responsibility:
+    // Streams a chunk of reference products into a staging table with PostgreSQL COPY,
+    // then merges the staging table into treatment_product with one INSERT ... ON CONFLICT.
+    //Justification:
+    // COPY is the fastest way to load rows into PostgreSQL; the merge keeps the upsert
+    // semantics of the JDBC batch writer. Both statements run on the connection of the
+    // chunk transaction, so a rolled back chunk leaves nothing behind.
+
+    // Session-local staging table, emptied by PostgreSQL at every commit
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE IF NOT EXISTS treatment_product_staging
+                (LIKE treatment_product INCLUDING DEFAULTS) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY = """
+            COPY treatment_product_staging (code, nom, dci1, prixbr, tauxremboursement)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    // DISTINCT ON keeps one row per code, as ON CONFLICT cannot touch the same row twice
+    private static final String MERGE = """
+            INSERT INTO treatment_product (code, nom, dci1, prixbr, tauxremboursement)
+            SELECT DISTINCT ON (code) code, nom, dci1, prixbr, tauxremboursement
+            FROM treatment_product_staging
+            ORDER BY code
+            ON CONFLICT (code) DO UPDATE SET
+                nom = EXCLUDED.nom,
+                dci1 = EXCLUDED.dci1,
+                prixbr = EXCLUDED.prixbr,
+                tauxremboursement = EXCLUDED.tauxremboursement
+            """;
+
+    private final DataSource dataSource;
+
+    public TreatmentProductCopyWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void write(Chunk<? extends TreatmentProduct> chunk) throws Exception {
+        StringBuilder rows = new StringBuilder(chunk.size() * 96);
+        for (TreatmentProduct product : chunk) {
+            rows.append(product.getCODE()).append(',');
+            appendText(rows, product.getNOM());
+            rows.append(',');
+            appendText(rows, product.getDCI1());
+            rows.append(',');
+            if (product.getPRIXBR() != null) {
+                rows.append(product.getPRIXBR());
+            }
+            rows.append(',').append(product.getTAUXREMBOURSEMENT())
+                    .append('\n');
+        }
+
+        // The transaction-bound connection, released by the transaction manager
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY, new StringReader(rows.toString()));
+            statement.executeUpdate(MERGE);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Appends a value as a quoted CSV field; null is written as an unquoted empty field.
+     */
+    private static void appendText(StringBuilder rows, String value) {
+        if (value == null) {
+            return;
+        }
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        rows.append('"');
+    }
+}
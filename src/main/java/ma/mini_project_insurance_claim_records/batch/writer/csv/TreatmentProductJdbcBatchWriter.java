@@ -0,0 +1,41 @@
+package ma.mini_project_insurance_claim_records.batch.writer.csv;
+
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class TreatmentProductJdbcBatchWriter implements ItemWriter<TreatmentProduct> {
+    //Responsibility:
+    // Upserts a chunk of reference products with a single JDBC batch.
+    //Justification:
+    // The database resolves conflicts on the product code, so the chunk needs no prior
+    // findAllById and no entity hydration, and every row travels in the same batch.
+
+    static final String UPSERT = """
+            INSERT INTO treatment_product (code, nom, dci1, prixbr, tauxremboursement)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (code) DO UPDATE SET
+                nom = EXCLUDED.nom,
+                dci1 = EXCLUDED.dci1,
+                prixbr = EXCLUDED.prixbr,
+                tauxremboursement = EXCLUDED.tauxremboursement
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void write(Chunk<? extends TreatmentProduct> chunk) throws Exception {
+        jdbcTemplate.batchUpdate(UPSERT, chunk.getItems(), chunk.size(), (statement, product) -> {
+            statement.setLong(1, product.getCODE());
+            statement.setString(2, product.getNOM());
+            statement.setString(3, product.getDCI1());
+            statement.setBigDecimal(4, product.getPRIXBR() != null ? product.getPRIXBR().toBigDecimal() : null);
+            statement.setDouble(5, product.getTAUXREMBOURSEMENT());
+        });
+    }
+}
@@ -1,19 +1,31 @@
 package ma.mini_project_insurance_claim_records.controller;
 
+import ma.mini_project_insurance_claim_records.batch.reader.DossierJsonStreamParser;
 import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+import ma.mini_project_insurance_claim_records.dto.JobExecutionStatusDTO;
 import ma.mini_project_insurance_claim_records.service.DossiersContext;
+import ma.mini_project_insurance_claim_records.service.StreamingDossierSource;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -21,8 +33,9 @@ import java.util.List;
  * 
  * This controller provides endpoints for triggering batch processing jobs
  * that handle insurance claim dossiers. It accepts dossier data in JSON format,
- * stores it in a shared context, and launches the configured Spring Batch job
- * to process the claims.
+ * registers it in the {@link DossiersContext} under a payload id, and launches the
+ * configured Spring Batch job with that id to process the claims. Concurrent requests
+ * run as independent job executions, each reading its own payload.
  * 
  * @author Yeasthetic
  * @version 1.0
@@ -35,17 +48,30 @@ public class BatchController {
     @Autowired
     private JobLauncher jobLauncher;
 
+    @Autowired
+    @Qualifier("asyncJobLauncher")
+    private JobLauncher asyncJobLauncher;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
     @Autowired
     private Job fetchJSONToDossierJob;
 
     @Autowired
     private DossiersContext dossiersContext;
 
+    @Autowired
+    private DossierJsonStreamParser dossierJsonStreamParser;
+
+    @Value("${dossier.stream.buffer-size:100}")
+    private int streamBufferSize;
+
     /**
      * Processes a list of dossiers by launching a batch job.
      * 
-     * This endpoint accepts JSON dossier data, stores it in a shared context,
-     * creates job parameters for uniqueness, and launches the main batch job
+     * This endpoint accepts JSON dossier data, registers it in the dossier context,
+     * creates job parameters carrying the payload id, and launches the main batch job
      * for reimbursement calculation and persistence.
      * 
      * @param dossiers A list of {@link DossierDTO} objects containing claim information
@@ -53,21 +79,110 @@ public class BatchController {
      */
     @PostMapping("/start-batch")
     public ResponseEntity<String> processDossiers(@RequestBody List<DossierDTO> dossiers) {
+        // Register the dossiers under their own payload id
+        String payloadId = dossiersContext.register(dossiers);
         try {
-            // Save the dossiers in the shared context
-            dossiersContext.setDossiers(dossiers);
+            // Launching the Job
+            JobExecution jobExecution = jobLauncher.run(fetchJSONToDossierJob, jobParameters(payloadId));
+
+            return ResponseEntity.ok("Batch job has been invoked. Status: " + jobExecution.getStatus());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Batch job failed. Error: " + e.getMessage());
+        } finally {
+            // Already released by the job, unless it could not be launched
+            dossiersContext.release(payloadId);
+        }
+    }
 
-            // Creating Job Parameters
-            JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("time", System.currentTimeMillis()) // Ensure uniqueness for each execution
-                    .toJobParameters();
+    /**
+     * Processes a JSON array of dossiers while it is still being uploaded.
+     * 
+     * The request body is parsed incrementally on a separate virtual thread and fed to
+     * the batch reader through a bounded buffer, so heap use does not grow with the size
+     * of the payload and the first chunks are committed before the upload has finished.
+     * The response is sent once the job has completed.
+     * 
+     * @param body The raw request body, a JSON array of {@link DossierDTO} objects
+     * @return A {@link ResponseEntity} with success message and job status, or error message on failure
+     */
+    @PostMapping(value = "/start-batch/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> streamDossiers(InputStream body) {
+        StreamingDossierSource source = new StreamingDossierSource(streamBufferSize);
+        String payloadId = dossiersContext.register(source);
 
-            // Launching the Job
-            JobExecution jobExecution = jobLauncher.run(fetchJSONToDossierJob, jobParameters);
+        Thread parser = Thread.ofVirtual()
+                .name("dossier-stream-parser")
+                .start(() -> dossierJsonStreamParser.parse(body, source));
+        try {
+            JobExecution jobExecution = jobLauncher.run(fetchJSONToDossierJob, jobParameters(payloadId));
 
             return ResponseEntity.ok("Batch job has been invoked. Status: " + jobExecution.getStatus());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Batch job failed. Error: " + e.getMessage());
+        } finally {
+            // Releases the parser if the job stopped before consuming the whole stream
+            dossiersContext.release(payloadId);
+            try {
+                parser.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Submits a list of dossiers and returns without waiting for the batch job.
+     * 
+     * The job is launched on a dedicated virtual-thread executor. The response is
+     * {@code 202 Accepted} with the execution id, and its {@code Location} header points
+     * to the status endpoint to poll.
+     * 
+     * @param dossiers A list of {@link DossierDTO} objects containing claim information
+     * @return A {@link ResponseEntity} with the initial {@link JobExecutionStatusDTO}, or 500 if the job could not be launched
+     */
+    @PostMapping("/start-batch/async")
+    public ResponseEntity<JobExecutionStatusDTO> submitDossiers(@RequestBody List<DossierDTO> dossiers) {
+        String payloadId = dossiersContext.register(dossiers);
+        try {
+            JobExecution jobExecution = asyncJobLauncher.run(fetchJSONToDossierJob, jobParameters(payloadId));
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/batch/executions/" + jobExecution.getId()))
+                    .body(JobExecutionStatusDTO.from(jobExecution));
+        } catch (Exception e) {
+            dossiersContext.release(payloadId);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Reports the live status of a job execution.
+     * 
+     * @param executionId The id returned when the job was submitted
+     * @return A {@link ResponseEntity} with the {@link JobExecutionStatusDTO}, or 404 if the execution does not exist
+     */
+    @GetMapping("/batch/executions/{executionId}")
+    public ResponseEntity<JobExecutionStatusDTO> getExecutionStatus(@PathVariable Long executionId) {
+        JobExecution jobExecution = jobExplorer.getJobExecution(executionId);
+        if (jobExecution == null) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(JobExecutionStatusDTO.from(jobExecution));
+    }
+
+    /**
+     * Creates the job parameters of a dossier job execution.
+     * 
+     * The payload id identifies the job instance, so concurrent submissions never
+     * collide, and tells the step-scoped reader which payload to read.
+     * 
+     * @param payloadId The id of the payload registered in the dossier context
+     * @return The job parameters
+     */
+    private JobParameters jobParameters(String payloadId) {
+        return new JobParametersBuilder()
+                .addString(DossiersContext.PAYLOAD_ID_PARAMETER, payloadId)
+                .addLong("time", System.currentTimeMillis())
+                .toJobParameters();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package ma.mini_project_insurance_claim_records.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.mini_project_insurance_claim_records.dto.DossierPageDTO;
+import ma.mini_project_insurance_claim_records.dto.DossierSummaryDTO;
+import ma.mini_project_insurance_claim_records.service.DossierFilter;
+import ma.mini_project_insurance_claim_records.service.DossierQueryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * REST Controller for querying processed dossiers.
+ *
+ * Dossiers can be filtered by affiliation number, submission date range and reimbursed
+ * amount range. {@code GET /dossiers} returns one page at a time, addressed by the
+ * {@code nextCursor} of the previous page. {@code GET /dossiers/stream} returns every
+ * matching dossier as newline-delimited JSON, written page by page while the next pages
+ * are read, so an export never has to fit in memory.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/dossiers")
+public class DossierQueryController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private DossierQueryService dossierQueryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dossier.query.page-size:100}")
+    private int defaultPageSize;
+
+    /**
+     * Lists one page of dossiers.
+     *
+     * @param after The {@code nextCursor} of the previous page, absent for the first page
+     * @param limit The maximum number of dossiers in the page
+     * @return A {@link ResponseEntity} with the {@link DossierPageDTO}, or 400 if a range is inverted
+     */
+    @GetMapping
+    public ResponseEntity<DossierPageDTO> listDossiers(
+            @RequestParam(required = false) String affiliationNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submittedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submittedTo,
+            @RequestParam(required = false) BigDecimal minReimbursed,
+            @RequestParam(required = false) BigDecimal maxReimbursed,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        DossierFilter filter = new DossierFilter(affiliationNumber, submittedFrom, submittedTo, minReimbursed, maxReimbursed);
+        if (!filter.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dossierQueryService.findPage(filter, after, limit != null ? limit : defaultPageSize));
+    }
+
+    /**
+     * Streams every matching dossier, one JSON object per line.
+     *
+     * @return A {@link ResponseEntity} streaming the dossiers, or 400 if a range is inverted
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamDossiers(
+            @RequestParam(required = false) String affiliationNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submittedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate submittedTo,
+            @RequestParam(required = false) BigDecimal minReimbursed,
+            @RequestParam(required = false) BigDecimal maxReimbursed) {
+        DossierFilter filter = new DossierFilter(affiliationNumber, submittedFrom, submittedTo, minReimbursed, maxReimbursed);
+        if (!filter.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                DossierPageDTO page = dossierQueryService.findPage(filter, cursor, defaultPageSize);
+                for (DossierSummaryDTO dossier : page.getDossiers()) {
+                    out.write(objectMapper.writeValueAsBytes(dossier));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
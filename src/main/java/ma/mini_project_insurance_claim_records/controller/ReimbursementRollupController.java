@@ -0,0 +1,102 @@
+package ma.mini_project_insurance_claim_records.controller;
+
+import ma.mini_project_insurance_claim_records.dto.JobExecutionStatusDTO;
+import ma.mini_project_insurance_claim_records.dto.ReimbursementRollupDTO;
+import ma.mini_project_insurance_claim_records.service.ReimbursementRollupService;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * REST Controller serving the reimbursement rollups.
+ *
+ * Every read is a primary key lookup on a rollup table maintained by the dossier writer,
+ * so its cost does not depend on the number of stored dossiers. The rollups can be
+ * recomputed from scratch with {@code POST /rollups/rebuild}, which launches the rebuild
+ * job asynchronously; its progress is polled like any other execution.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/rollups")
+public class ReimbursementRollupController {
+
+    @Autowired
+    private ReimbursementRollupService reimbursementRollupService;
+
+    @Autowired
+    @Qualifier("asyncJobLauncher")
+    private JobLauncher asyncJobLauncher;
+
+    @Autowired
+    private Job rebuildReimbursementRollupsJob;
+
+    /**
+     * @param affiliationNumber The affiliation number of the insured member
+     * @return The totals of the affiliation number, or 404 if none of its dossiers is stored
+     */
+    @GetMapping("/affiliations/{affiliationNumber}")
+    public ResponseEntity<ReimbursementRollupDTO> getAffiliationTotals(@PathVariable String affiliationNumber) {
+        return toResponse(reimbursementRollupService.findByAffiliation(affiliationNumber));
+    }
+
+    /**
+     * @param day The submission date, as an ISO date
+     * @return The totals of the day, or 404 if no dossier was submitted that day
+     */
+    @GetMapping("/days/{day}")
+    public ResponseEntity<ReimbursementRollupDTO> getDailyTotals(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return toResponse(reimbursementRollupService.findByDay(day));
+    }
+
+    /**
+     * @param code The medication code
+     * @return The totals of the medication, or 404 if no stored treatment has this code
+     */
+    @GetMapping("/medications/{code}")
+    public ResponseEntity<ReimbursementRollupDTO> getMedicationTotals(@PathVariable long code) {
+        return toResponse(reimbursementRollupService.findByMedication(code));
+    }
+
+    /**
+     * Launches the rollup rebuild job without waiting for it.
+     *
+     * @return {@code 202 Accepted} with the initial {@link JobExecutionStatusDTO}, or 500 if the job could not be launched
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<JobExecutionStatusDTO> rebuild() {
+        try {
+            JobExecution jobExecution = asyncJobLauncher.run(rebuildReimbursementRollupsJob, new JobParametersBuilder()
+                    .addLong("time", System.currentTimeMillis())
+                    .toJobParameters());
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/batch/executions/" + jobExecution.getId()))
+                    .body(JobExecutionStatusDTO.from(jobExecution));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static ResponseEntity<ReimbursementRollupDTO> toResponse(Optional<ReimbursementRollupDTO> rollup) {
+        return rollup.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,28 @@
+package ma.mini_project_insurance_claim_records.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * One page of dossiers returned by {@code GET /dossiers}.
+ * 
+ * Pages are addressed by a cursor rather than an offset: the next page is requested
+ * with {@code after=<nextCursor>}, and a null cursor means this is the last page.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class DossierPageDTO {
+    /** The dossiers of this page, ordered by affiliation number. */
+    private List<DossierSummaryDTO> dossiers;
+
+    /** The affiliation number to pass as {@code after} for the next page, or null on the last page. */
+    private String nextCursor;
+}
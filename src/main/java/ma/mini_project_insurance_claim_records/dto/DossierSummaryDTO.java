@@ -0,0 +1,55 @@
+package ma.mini_project_insurance_claim_records.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only view of a processed dossier and its treatments, returned by the dossier
+ * query endpoints.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class DossierSummaryDTO {
+    /** The affiliation number of the insured member. */
+    private String affiliationNumber;
+
+    /** The name of the insured person. */
+    private String insuredName;
+
+    /** The name of the person receiving the treatment. */
+    private String beneficiaryName;
+
+    /** The relationship between the beneficiary and the insured person. */
+    private String lienParente;
+
+    /** The date when the dossier was submitted. */
+    private LocalDate dossierSubmissionDate;
+
+    /** The date when the treatment was provided. */
+    private LocalDate treatmentDate;
+
+    /** The number of supporting documents attached to the dossier. */
+    private int nombrePiecesJointes;
+
+    /** The price of the consultation. */
+    private BigDecimal prixConsultation;
+
+    /** The total cost claimed in the dossier. */
+    private BigDecimal totalCost;
+
+    /** The calculated reimbursement amount. */
+    private BigDecimal reimbursedAmount;
+
+    /** The treatments of the dossier. */
+    private List<TreatmentSummaryDTO> treatments;
+}
@@ -0,0 +1,97 @@
+package ma.mini_project_insurance_claim_records.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object reporting the progress of a batch job execution.
+ * 
+ * The counts are summed over the step executions as last committed to the job
+ * repository, so they can be polled while the job is still running.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class JobExecutionStatusDTO {
+    /** The id of the job execution. */
+    private Long executionId;
+
+    /** The name of the job. */
+    private String jobName;
+
+    /** The batch status of the execution (e.g., STARTED, COMPLETED, FAILED). */
+    private String status;
+
+    /** The exit code of the execution. */
+    private String exitCode;
+
+    /** The time the execution started, null while it is still starting. */
+    private LocalDateTime startTime;
+
+    /** The time the execution ended, null while it is running. */
+    private LocalDateTime endTime;
+
+    /** The elapsed time so far, or the total duration once the execution has ended. */
+    private long durationMillis;
+
+    /** The number of items read. */
+    private long readCount;
+
+    /** The number of items written. */
+    private long writeCount;
+
+    /** The number of items filtered out by the processors. */
+    private long filterCount;
+
+    /** The number of items skipped while reading, processing or writing. */
+    private long skipCount;
+
+    /** The number of committed chunks. */
+    private long commitCount;
+
+    /** The number of rolled back chunks. */
+    private long rollbackCount;
+
+    /**
+     * Builds the status of a job execution from its step executions.
+     * 
+     * @param jobExecution The job execution to report on
+     * @return The status of the job execution
+     */
+    public static JobExecutionStatusDTO from(JobExecution jobExecution) {
+        long read = 0, write = 0, filter = 0, skip = 0, commit = 0, rollback = 0;
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            read += stepExecution.getReadCount();
+            write += stepExecution.getWriteCount();
+            filter += stepExecution.getFilterCount();
+            skip += stepExecution.getSkipCount();
+            commit += stepExecution.getCommitCount();
+            rollback += stepExecution.getRollbackCount();
+        }
+
+        LocalDateTime start = jobExecution.getStartTime();
+        LocalDateTime end = jobExecution.getEndTime();
+        long duration = start == null ? 0
+                : Duration.between(start, end != null ? end : LocalDateTime.now()).toMillis();
+
+        return new JobExecutionStatusDTO(
+                jobExecution.getId(),
+                jobExecution.getJobInstance().getJobName(),
+                jobExecution.getStatus().name(),
+                jobExecution.getExitStatus().getExitCode(),
+                start,
+                end,
+                duration,
+                read, write, filter, skip, commit, rollback);
+    }
+}
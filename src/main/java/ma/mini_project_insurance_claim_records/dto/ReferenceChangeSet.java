@@ -0,0 +1,41 @@
+package ma.mini_project_insurance_claim_records.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Changes applied to the reference medication table by one incremental refresh.
+ * 
+ * Published as an application event once the refresh has written its changes, inside
+ * the refresh transaction. Listeners that must only see committed data should use
+ * {@code @TransactionalEventListener}.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class ReferenceChangeSet {
+    /** The SHA-256 of the reference file that was applied. */
+    private String fingerprint;
+
+    /** Codes of the products that were not in the table. */
+    private List<Long> insertedCodes;
+
+    /** Codes of the products whose name, DCI, price or rate changed. */
+    private List<Long> updatedCodes;
+
+    /** Codes of the products that are no longer in the reference file. */
+    private List<Long> deletedCodes;
+
+    /** The number of products left untouched. */
+    private int unchanged;
+
+    /** Time taken by the refresh, in milliseconds. */
+    private long durationMillis;
+}
@@ -0,0 +1,35 @@
+package ma.mini_project_insurance_claim_records.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object reporting the reimbursement totals of one affiliation number,
+ * submission day or medication code.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class ReimbursementRollupDTO {
+    /** What the totals are grouped by: affiliation, day or medication. */
+    private String dimension;
+
+    /** The affiliation number, ISO submission date or medication code. */
+    private String key;
+
+    /** The number of dossiers, or of treatments for a medication code. */
+    private long count;
+
+    /** The total claimed: dossier total costs, or treatment prices for a medication code. */
+    private BigDecimal totalAmount;
+
+    /** The total reimbursed; null for a medication code, since reimbursements are per dossier. */
+    private BigDecimal reimbursedAmount;
+}
@@ -0,0 +1,34 @@
+package ma.mini_project_insurance_claim_records.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of a stored treatment, returned by the dossier query endpoints.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class TreatmentSummaryDTO {
+    /** The barcode or product code of the medication. */
+    private Long codeBarre;
+
+    /** The commercial name of the medication. */
+    private String nomMedicament;
+
+    /** The type or category of medication. */
+    private String typeMedicament;
+
+    /** The price of the medication. */
+    private BigDecimal prixMedicament;
+
+    /** Indicates whether the medication exists in the reference database. */
+    private boolean existe;
+}
@@ -0,0 +1,40 @@
+package ma.mini_project_insurance_claim_records.health;
+
+import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.repository.MedicationReferenceRepository;
+import ma.mini_project_insurance_claim_records.service.MedicationReferenceIndex;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link HealthIndicator} reporting whether the reference medication data is usable.
+ *
+ * The data is usable once the {@link MedicationReferenceIndex} holds a complete reference
+ * table, which is never the case while the first import of an empty table is running.
+ * When the index is disabled, lookups query the table, so the number of products is the
+ * row count of the table, once a completed import or the startup load has found products.
+ * The indicator is part of the readiness group, so a pod only receives dossiers once
+ * they can be matched against the reference table, whatever the startup mode.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@AllArgsConstructor
+public class ReferenceDataHealthIndicator implements HealthIndicator {
+
+    private final MedicationReferenceIndex medicationReferenceIndex;
+    private final MedicationReferenceRepository medicationReferenceRepository;
+
+    @Override
+    public Health health() {
+        long products = medicationReferenceIndex.isEnabled()
+                ? medicationReferenceIndex.size()
+                : medicationReferenceRepository.count();
+        boolean usable = products > 0 && medicationReferenceIndex.isLoaded();
+        Health.Builder builder = usable ? Health.up() : Health.outOfService();
+        return builder.withDetail("products", products).build();
+    }
+}
@@ -0,0 +1,37 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * JPA Entity holding the running reimbursement totals of one affiliation number.
+ * 
+ * Maintained by the dossier writer in the same transaction as every chunk, and recomputed
+ * from the dossier table by the rollup rebuild job.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Setter
+@Getter
+public class AffiliationReimbursementRollup {
+    /** The affiliation number the totals belong to. */
+    @Id
+    private String affiliationNumber;
+
+    /** The number of dossiers stored for the affiliation number. */
+    private long dossierCount;
+
+    /** The total cost claimed in those dossiers. */
+    @Column(precision = 19, scale = 2)
+    private Money totalCost = Money.ZERO;
+
+    /** The total amount reimbursed for those dossiers. */
+    @Column(precision = 19, scale = 2)
+    private Money reimbursedAmount = Money.ZERO;
+}
@@ -0,0 +1,40 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * JPA Entity holding the running reimbursement totals of one submission day.
+ * 
+ * Maintained by the dossier writer in the same transaction as every chunk, and recomputed
+ * from the dossier table by the rollup rebuild job. Dossiers without a submission date
+ * are not counted.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Setter
+@Getter
+public class DailyReimbursementRollup {
+    /** The submission date the totals belong to. */
+    @Id
+    private LocalDate submissionDay;
+
+    /** The number of dossiers submitted that day. */
+    private long dossierCount;
+
+    /** The total cost claimed in those dossiers. */
+    @Column(precision = 19, scale = 2)
+    private Money totalCost = Money.ZERO;
+
+    /** The total amount reimbursed for those dossiers. */
+    @Column(precision = 19, scale = 2)
+    private Money reimbursedAmount = Money.ZERO;
+}
@@ -3,6 +3,7 @@ package ma.mini_project_insurance_claim_records.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -15,18 +16,29 @@ import java.util.List;
  * including member details, treatment information, medical costs, and calculated
  * reimbursement amounts. The dossier serves as the main container for a complete
  * claim submission.
+ *
+ * The affiliation number is assigned by the caller rather than generated, so the entity
+ * tracks whether it has been persisted or loaded itself: a new dossier is persisted
+ * directly instead of being merged, which would first select it by id.
+ *
+ * The submission date and reimbursed amount are indexed for the range filters of the
+ * dossier query endpoints, which page through the primary key.
  * 
  * @author Yeasthetic
  * @version 1.0
  * @since 1.0
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_dossier_submission_date", columnList = "dossier_submission_date, affiliation_number"),
+        @Index(name = "idx_dossier_reimbursed_amount", columnList = "reimbursed_amount, affiliation_number")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
 @Setter
 @Getter
-public class Dossier {
+public class Dossier implements Persistable<String> {
 
     /**
      * Unique identifier and primary key for the dossier.
@@ -55,18 +67,56 @@ public class Dossier {
 
     /**
      * One-to-many relationship with treatments.
-     * A single dossier can contain multiple treatments.
+     * A single dossier can contain multiple treatments; the foreign key is owned by
+     * {@link Treatment#getDossier()}.
      */
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "dossier_id")
+    @OneToMany(mappedBy = "dossier", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Treatment> treatments = new ArrayList<>();
 
     /** The price or cost of the consultation. */
-    private double prixConsultation;
+    @Column(precision = 19, scale = 2)
+    private Money prixConsultation = Money.ZERO;
 
     /** The total cost of all medical expenses claimed in this dossier. */
-    private double totalCost;
+    @Column(precision = 19, scale = 2)
+    private Money totalCost = Money.ZERO;
 
     /** The calculated amount to be reimbursed to the member based on the insurance policy. */
-    private double reimbursedAmount;
-}
\ No newline at end of file
+    @Column(precision = 19, scale = 2)
+    private Money reimbursedAmount = Money.ZERO;
+
+    /** False until the dossier has been persisted or loaded from the database. */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private boolean persisted;
+
+    /**
+     * Replaces the treatments of this dossier and points each of them back to it.
+     *
+     * @param treatments The treatments of the dossier
+     */
+    public void setTreatments(List<Treatment> treatments) {
+        this.treatments = treatments;
+        if (treatments != null) {
+            treatments.forEach(treatment -> treatment.setDossier(this));
+        }
+    }
+
+    @Override
+    public String getId() {
+        return affiliationNumber;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        this.persisted = true;
+    }
+}
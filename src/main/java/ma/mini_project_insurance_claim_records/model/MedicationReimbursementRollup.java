@@ -0,0 +1,34 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * JPA Entity holding the running reimbursement totals of one medication code.
+ * 
+ * Maintained by the dossier writer in the same transaction as every chunk, and recomputed
+ * from the treatment table by the rollup rebuild job. Reimbursements are computed per
+ * dossier, so only the claimed prices are totalled per medication.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Setter
+@Getter
+public class MedicationReimbursementRollup {
+    /** The medication code the totals belong to. */
+    @Id
+    private Long code;
+
+    /** The number of stored treatments with this code. */
+    private long treatmentCount;
+
+    /** The total price claimed for those treatments. */
+    @Column(precision = 19, scale = 2)
+    private Money totalPrice = Money.ZERO;
+}
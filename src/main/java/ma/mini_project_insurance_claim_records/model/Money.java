@@ -0,0 +1,191 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact, fixed-point amount of money, held as a {@code long} number of centimes.
+ * 
+ * Additions and subtractions are exact integer operations; overflow throws an
+ * {@link ArithmeticException} instead of wrapping. Rates are applied as basis points
+ * (1/100 of a percent, so 70% is 7000) and the result is rounded to the centime with
+ * {@link RoundingMode#HALF_UP}, once per multiplication. Amounts coming from outside
+ * (JSON, CSV, the database) are rounded the same way when they are converted.
+ * 
+ * The static {@code long} helpers let hot loops accumulate centimes without creating
+ * instances at all. Money is persisted as a {@code numeric(19, 2)} column through
+ * {@link MoneyConverter}.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Centimes per unit of currency. */
+    public static final long CENTIMES = 100;
+
+    /** Basis points in a rate of 1 (100%). */
+    public static final long BASIS_POINTS = 10_000;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long centimes;
+
+    private Money(long centimes) {
+        this.centimes = centimes;
+    }
+
+    /**
+     * @param centimes The amount in centimes
+     * @return The amount of money
+     */
+    public static Money ofCentimes(long centimes) {
+        return centimes == 0 ? ZERO : new Money(centimes);
+    }
+
+    /**
+     * Converts a {@code double} amount, rounding half up to the centime as if the amount
+     * were written in decimal: 1.005 becomes 1.01.
+     *
+     * @param amount The amount in units of currency
+     * @return The amount of money
+     * @throws IllegalArgumentException if the amount is not finite
+     */
+    public static Money of(double amount) {
+        return ofCentimes(toFixed(amount, CENTIMES));
+    }
+
+    /**
+     * Converts a decimal amount, rounding half up to the centime.
+     *
+     * @param amount The amount in units of currency
+     * @return The amount of money, or null if amount is null
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofCentimes(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parses a decimal amount such as {@code "95.00"}, rounding half up to the centime.
+     *
+     * @param text The amount in units of currency
+     * @return The amount of money
+     * @throws NumberFormatException if the text is not a decimal number
+     */
+    public static Money parse(String text) {
+        return of(new BigDecimal(text));
+    }
+
+    /**
+     * Converts a rate such as 0.70 to basis points (7000), rounding half up.
+     *
+     * @param rate The rate, where 1 is 100%
+     * @return The rate in basis points
+     */
+    public static long basisPoints(double rate) {
+        return toFixed(rate, BASIS_POINTS);
+    }
+
+    /**
+     * Applies a rate to an amount in centimes, rounding half up to the centime.
+     *
+     * @param centimes The amount in centimes
+     * @param basisPoints The rate in basis points
+     * @return The resulting amount in centimes
+     */
+    public static long multiplyCentimes(long centimes, long basisPoints) {
+        long product = Math.multiplyExact(centimes, basisPoints);
+        long half = BASIS_POINTS / 2;
+        return product >= 0 ? (product + half) / BASIS_POINTS : -((half - product) / BASIS_POINTS);
+    }
+
+    public Money plus(Money other) {
+        return ofCentimes(Math.addExact(centimes, other.centimes));
+    }
+
+    public Money minus(Money other) {
+        return ofCentimes(Math.subtractExact(centimes, other.centimes));
+    }
+
+    /**
+     * @param basisPoints The rate in basis points
+     * @return This amount multiplied by the rate, rounded half up to the centime
+     */
+    public Money times(long basisPoints) {
+        return ofCentimes(multiplyCentimes(centimes, basisPoints));
+    }
+
+    /**
+     * @param rate The rate, where 1 is 100%
+     * @return This amount multiplied by the rate, rounded half up to the centime
+     */
+    public Money times(double rate) {
+        return times(basisPoints(rate));
+    }
+
+    public long centimes() {
+        return centimes;
+    }
+
+    public boolean isPositive() {
+        return centimes > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centimes, 2);
+    }
+
+    /**
+     * @return The amount in units of currency; exact for any amount below 2^53 centimes
+     */
+    public double toDouble() {
+        return centimes / (double) CENTIMES;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(centimes, other.centimes);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.centimes == centimes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centimes);
+    }
+
+    /**
+     * @return The amount with two decimals, such as {@code "-12.05"}
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Scales a {@code double} to a fixed-point {@code long}, rounding half up. Values that
+     * are within binary noise of an exact result, the common case, are rounded directly;
+     * the others go through their shortest decimal representation so halves round up.
+     */
+    private static long toFixed(double value, long factor) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Not a finite amount: " + value);
+        }
+        double scaled = value * factor;
+        long rounded = Math.round(scaled);
+        if (Math.abs(scaled - rounded) < 1e-6 && Math.abs(scaled) < 1e15) {
+            return rounded;
+        }
+        return BigDecimal.valueOf(value)
+                .multiply(BigDecimal.valueOf(factor))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,31 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * JPA converter storing {@link Money} as an exact decimal column.
+ * 
+ * Applied automatically to every {@link Money} attribute. Values read back from the
+ * database are rounded half up to the centime, so legacy {@code float8} columns convert
+ * to the amount that was originally written.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return Money.of(amount);
+    }
+}
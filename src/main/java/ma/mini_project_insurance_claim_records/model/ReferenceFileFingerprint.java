@@ -0,0 +1,38 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity recording the last reference file applied by the incremental refresh.
+ * 
+ * The SHA-256 of the file content is compared with the file found at the next startup,
+ * so an unchanged reference file is not imported again.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Setter
+@Getter
+public class ReferenceFileFingerprint {
+    /** The name of the reference file, as configured by {@code file.input}. */
+    @Id
+    private String fileName;
+
+    /** Hex-encoded SHA-256 of the file content. */
+    private String sha256;
+
+    /** The number of products in the file when it was applied. */
+    private int rowCount;
+
+    /** When the file was applied to the reference table. */
+    private LocalDateTime appliedAt;
+}
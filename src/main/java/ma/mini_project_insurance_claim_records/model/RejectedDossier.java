@@ -0,0 +1,42 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity recording a dossier that was rejected by the dossier step.
+ * 
+ * Rejected dossiers are filtered out of the step instead of failing it; this table keeps
+ * the reasons, so they can be corrected and submitted again.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Setter
+@Getter
+public class RejectedDossier {
+    /** Generated identifier of the rejection. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** The affiliation number of the rejected dossier, if it had one. */
+    private String affiliationNumber;
+
+    /** The stage of the step that rejected the dossier: validation, or read, process or write for a skip. */
+    private String stage;
+
+    /** Every reason for the rejection, as {@code CODE: message} separated by {@code "; "}. */
+    @Column(length = 2000)
+    private String reasons;
+
+    /** When the dossier was rejected. */
+    private LocalDateTime rejectedAt;
+}
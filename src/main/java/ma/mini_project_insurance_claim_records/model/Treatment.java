@@ -8,21 +8,39 @@ import lombok.*;
  * 
  * This entity stores details about a medication prescribed to the patient,
  * including its identification code, name, type, price, and availability status.
- * Multiple treatments can be associated with a single dossier.
+ * Multiple treatments can be associated with a single dossier, and the same medication
+ * can appear in any number of dossiers.
+ *
+ * Rows are keyed by a surrogate id drawn from the {@value #ID_SEQUENCE} sequence in blocks
+ * of {@value #ID_ALLOCATION_SIZE} (pooled-lo optimizer), so new treatments get their ids
+ * without a round trip per row and their inserts can be JDBC-batched. The treatment owns
+ * the {@code dossier_id} foreign key, which is written with the insert itself and indexed
+ * so the treatments of a page of dossiers are read with one index lookup per dossier.
  * 
  * @author Yeasthetic
  * @version 1.0
  * @since 1.0
  */
 @Entity
+@Table(indexes = @Index(name = "idx_treatment_dossier_id", columnList = "dossier_id"))
 @NoArgsConstructor
-@AllArgsConstructor
 @ToString
 @Setter
 @Getter
 public class Treatment {
-    /** The barcode or product code that uniquely identifies the medication. */
+    /** Name of the database sequence the treatment ids are drawn from. */
+    public static final String ID_SEQUENCE = "treatment_seq";
+
+    /** Number of ids reserved by every call to {@link #ID_SEQUENCE}. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /** Surrogate primary key, generated from {@link #ID_SEQUENCE}. */
     @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    /** The barcode or product code that identifies the medication. */
     private Long codeBarre;
 
     /** Indicates whether the medication exists in the reference database. */
@@ -35,5 +53,20 @@ public class Treatment {
     private String typeMedicament;
 
     /** The price of the medication. */
-    private double prixMedicament;
+    @Column(precision = 19, scale = 2)
+    private Money prixMedicament = Money.ZERO;
+
+    /** The dossier this treatment belongs to; owning side of {@link Dossier#getTreatments()}. */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "dossier_id")
+    @ToString.Exclude
+    private Dossier dossier;
+
+    public Treatment(Long codeBarre, boolean existe, String nomMedicament, String typeMedicament, Money prixMedicament) {
+        this.codeBarre = codeBarre;
+        this.existe = existe;
+        this.nomMedicament = nomMedicament;
+        this.typeMedicament = typeMedicament;
+        this.prixMedicament = prixMedicament;
+    }
 }
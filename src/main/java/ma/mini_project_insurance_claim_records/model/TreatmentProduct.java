@@ -34,8 +34,9 @@ public class TreatmentProduct {
     private String DCI1;
 
     /** The base price of the product (reference price from CNOPS). */
-    private double PRIXBR;
+    @Column(precision = 19, scale = 2)
+    private Money PRIXBR = Money.ZERO;
 
-    /** The reimbursement rate for the product, typically expressed as a percentage (e.g., 80 for 80%). */
+    /** The reimbursement rate for the product, expressed as a fraction (e.g., 0.70 for 70%). */
     private double TAUXREMBOURSEMENT;
 }
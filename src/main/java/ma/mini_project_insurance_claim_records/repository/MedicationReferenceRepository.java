@@ -1,9 +1,13 @@
 package ma.mini_project_insurance_claim_records.repository;
 
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Spring Data JPA repository interface for {@link TreatmentProduct} entities.
  * 
@@ -28,5 +32,15 @@ public interface MedicationReferenceRepository extends JpaRepository<TreatmentPr
      * @param PRIXBR The base price of the product
      * @return The matching {@link TreatmentProduct} if found, null otherwise
      */
-    TreatmentProduct findByCODEAndNOMContainingAndPRIXBR(Long CODE, String NOM, double PRIXBR);
+    TreatmentProduct findByCODEAndNOMContainingAndPRIXBR(Long CODE, String NOM, Money PRIXBR);
+
+    /**
+     * Finds all treatment products whose code is in the given collection.
+     * 
+     * Resolves a whole set of product codes with a single {@code WHERE CODE IN (...)} query.
+     * 
+     * @param codes The product codes to resolve
+     * @return The matching {@link TreatmentProduct} entities, in no particular order
+     */
+    List<TreatmentProduct> findByCODEIn(Collection<Long> codes);
 }
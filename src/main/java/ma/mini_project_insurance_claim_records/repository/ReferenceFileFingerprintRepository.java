@@ -0,0 +1,17 @@
+package ma.mini_project_insurance_claim_records.repository;
+
+import ma.mini_project_insurance_claim_records.model.ReferenceFileFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository interface for {@link ReferenceFileFingerprint} entities,
+ * keyed by reference file name.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface ReferenceFileFingerprintRepository extends JpaRepository<ReferenceFileFingerprint, String> {
+}
@@ -0,0 +1,303 @@
+package ma.mini_project_insurance_claim_records.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import ma.mini_project_insurance_claim_records.service.CsvFileDossierSource;
+import ma.mini_project_insurance_claim_records.service.DossierSource;
+import ma.mini_project_insurance_claim_records.service.DossiersContext;
+import ma.mini_project_insurance_claim_records.service.JsonFileDossierSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * File-drop ingestion of dossiers.
+ *
+ * A {@link WatchService} watches the {@code dossier.inbox.dir} directory. Every
+ * {@code .json} file (an array of dossiers) or {@code .csv} file (see
+ * {@link CsvFileDossierSource}) dropped there is processed by its own
+ * {@code fetchJSONToDossierJob} execution, reading the file straight from disk one
+ * dossier at a time. The file is then moved to the processed directory if the job
+ * completed, or to the failed directory otherwise.
+ *
+ * A file is taken once it is complete: its size and modification time must stay the same
+ * for {@code dossier.inbox.settle-ms}. Files with any other extension, such as the
+ * {@code .part} or {@code .tmp} name a transfer writes to before renaming, are ignored.
+ * Files already in the inbox at startup, or missed because the watch queue overflowed,
+ * are picked up by a directory scan.
+ *
+ * Each file is handled on a virtual thread, and at most
+ * {@code dossier.inbox.max-concurrent-files} jobs run at once; the other files wait
+ * for a permit. Outcomes are counted in {@code dossier.inbox.files}, tagged
+ * {@code result=processed|failed}.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class DossierInboxWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DossierInboxWatcher.class);
+
+    /** Name of the job parameter carrying the name of the ingested file. */
+    public static final String INBOX_FILE_PARAMETER = "inboxFile";
+
+    private final JobLauncher jobLauncher;
+    private final Job fetchJSONToDossierJob;
+    private final DossiersContext dossiersContext;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path inbox;
+    private final Path processedDir;
+    private final Path failedDir;
+    private final long settleMillis;
+    private final Semaphore permits;
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+
+    /** Files queued or being processed, so that repeated events do not process them twice. */
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile WatchService watchService;
+
+    public DossierInboxWatcher(JobLauncher jobLauncher,
+                               Job fetchJSONToDossierJob,
+                               DossiersContext dossiersContext,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${dossier.inbox.enabled:false}") boolean enabled,
+                               @Value("${dossier.inbox.dir:inbox}") String inbox,
+                               @Value("${dossier.inbox.processed-dir:${dossier.inbox.dir:inbox}/processed}") String processedDir,
+                               @Value("${dossier.inbox.failed-dir:${dossier.inbox.dir:inbox}/failed}") String failedDir,
+                               @Value("${dossier.inbox.settle-ms:1000}") long settleMillis,
+                               @Value("${dossier.inbox.max-concurrent-files:2}") int maxConcurrentFiles) {
+        this.jobLauncher = jobLauncher;
+        this.fetchJSONToDossierJob = fetchJSONToDossierJob;
+        this.dossiersContext = dossiersContext;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.inbox = Paths.get(inbox).toAbsolutePath();
+        this.processedDir = Paths.get(processedDir).toAbsolutePath();
+        this.failedDir = Paths.get(failedDir).toAbsolutePath();
+        this.settleMillis = settleMillis;
+        this.permits = new Semaphore(Math.max(1, maxConcurrentFiles));
+        this.processedCounter = filesCounter(meterRegistry, "processed");
+        this.failedCounter = filesCounter(meterRegistry, "failed");
+    }
+
+    private static Counter filesCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("dossier.inbox.files")
+                .description("Inbox files ingested by the dossier job")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates the inbox directories and starts watching the inbox, if enabled.
+     *
+     * @throws IOException if the directories cannot be created or watched
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(inbox);
+        Files.createDirectories(processedDir);
+        Files.createDirectories(failedDir);
+        watchService = inbox.getFileSystem().newWatchService();
+        inbox.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofVirtual().name("dossier-inbox-watcher").start(this::watch);
+        logger.info("Watching dossier inbox {} (at most {} files at once)", inbox, permits.availablePermits());
+    }
+
+    /**
+     * Stops watching the inbox. Files already being processed run to completion.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        scan();
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                } else {
+                    submit(inbox.resolve((Path) event.context()));
+                }
+            }
+            if (overflow) {
+                scan();
+            }
+            if (!key.reset()) {
+                logger.error("Dossier inbox {} is no longer accessible, stopped watching it", inbox);
+                return;
+            }
+        }
+    }
+
+    private void scan() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(inbox)) {
+            for (Path file : files) {
+                submit(file);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to scan dossier inbox {}", inbox, e);
+        }
+    }
+
+    private void submit(Path file) {
+        if (sourceType(file) == null || !Files.isRegularFile(file) || !inFlight.add(file)) {
+            return;
+        }
+        Thread.ofVirtual().name("dossier-inbox-" + file.getFileName()).start(() -> {
+            try {
+                if (awaitComplete(file)) {
+                    permits.acquire();
+                    try {
+                        process(file);
+                    } finally {
+                        permits.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.remove(file);
+            }
+        });
+    }
+
+    /**
+     * Waits until the size and modification time of a file stop changing.
+     *
+     * @return false if the file disappeared in the meantime
+     */
+    private boolean awaitComplete(Path file) throws InterruptedException {
+        try {
+            long size = Files.size(file);
+            FileTime modified = Files.getLastModifiedTime(file);
+            while (true) {
+                Thread.sleep(settleMillis);
+                long currentSize = Files.size(file);
+                FileTime currentModified = Files.getLastModifiedTime(file);
+                if (currentSize == size && currentModified.equals(modified)) {
+                    return true;
+                }
+                size = currentSize;
+                modified = currentModified;
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.error("Cannot read inbox file {}", file, e);
+            return false;
+        }
+    }
+
+    private void process(Path file) {
+        DossierSource source;
+        try {
+            source = "csv".equals(sourceType(file))
+                    ? new CsvFileDossierSource(file)
+                    : new JsonFileDossierSource(file, objectMapper);
+        } catch (Exception e) {
+            logger.error("Cannot open inbox file {}", file, e);
+            moveTo(file, failedDir);
+            return;
+        }
+
+        String payloadId = dossiersContext.register(source);
+        BatchStatus status = BatchStatus.FAILED;
+        try {
+            JobExecution jobExecution = jobLauncher.run(fetchJSONToDossierJob, new JobParametersBuilder()
+                    .addString(DossiersContext.PAYLOAD_ID_PARAMETER, payloadId)
+                    .addString(INBOX_FILE_PARAMETER, file.getFileName().toString())
+                    .addLong("time", System.currentTimeMillis())
+                    .toJobParameters());
+            status = jobExecution.getStatus();
+            logger.info("Inbox file {} processed by execution {}: {}", file.getFileName(), jobExecution.getId(), status);
+        } catch (Exception e) {
+            logger.error("Failed to launch the dossier job for inbox file {}", file, e);
+        } finally {
+            // Already released by the job, unless it could not be launched
+            dossiersContext.release(payloadId);
+        }
+
+        if (status == BatchStatus.COMPLETED) {
+            moveTo(file, processedDir);
+            processedCounter.increment();
+        } else {
+            moveTo(file, failedDir);
+            failedCounter.increment();
+        }
+    }
+
+    private void moveTo(Path file, Path directory) {
+        Path target = directory.resolve(file.getFileName());
+        if (Files.exists(target)) {
+            target = directory.resolve(System.currentTimeMillis() + "-" + file.getFileName());
+        }
+        try {
+            try {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(file, target);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to move inbox file {} to {}", file, directory, e);
+        }
+    }
+
+    /**
+     * @return "json" or "csv" for a file to ingest, or null for a file to ignore
+     */
+    private static String sourceType(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.startsWith(".")) {
+            return null;
+        }
+        return name.endsWith(".json") ? "json" : name.endsWith(".csv") ? "csv" : null;
+    }
+}
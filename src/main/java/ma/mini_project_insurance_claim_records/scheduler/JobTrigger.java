@@ -1,40 +1,182 @@
 package ma.mini_project_insurance_claim_records.scheduler;
 
-import lombok.AllArgsConstructor;
-import lombok.RequiredArgsConstructor;
+import ma.mini_project_insurance_claim_records.repository.MedicationReferenceRepository;
+import ma.mini_project_insurance_claim_records.service.ReferenceFileFingerprintService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 @Component
-@RequiredArgsConstructor
 public class JobTrigger {
+    private static final Logger logger = LoggerFactory.getLogger(JobTrigger.class);
 
 //    // Inject the value from application.properties
 //    @Value("${file.input}")
 //    private String fileInput;
 
     private final JobLauncher jobLauncher;
+    private final JobLauncher asyncJobLauncher;
     private final Job fetchReimbursementProductJob;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+    private final ReferenceFileFingerprintService referenceFileFingerprintService;
+    private final MedicationReferenceRepository medicationReferenceRepository;
 
+    // BLOCKING holds startup until the import is done; BACKGROUND and SKIP_IF_POPULATED bring the web tier up first
+    @Value("${reference.import.startup-mode:BLOCKING}")
+    private ReferenceStartupMode startupMode;
+
+    // Resume an unfinished import from its last committed offset instead of starting over
+    @Value("${reference.import.restart-failed:true}")
+    private boolean restartFailed;
+
+    // Apply only the changes of the reference file, and skip it when it has not changed
+    @Value("${reference.import.incremental:false}")
+    private boolean incremental;
+
+    // A running import whose job repository record has not changed for this long is taken as abandoned
+    @Value("${reference.import.abandoned-after-ms:600000}")
+    private long abandonedAfterMillis;
+
+    public JobTrigger(JobLauncher jobLauncher,
+                      @Qualifier("asyncJobLauncher") JobLauncher asyncJobLauncher,
+                      Job fetchReimbursementProductJob,
+                      JobExplorer jobExplorer,
+                      JobRepository jobRepository,
+                      ReferenceFileFingerprintService referenceFileFingerprintService,
+                      MedicationReferenceRepository medicationReferenceRepository) {
+        this.jobLauncher = jobLauncher;
+        this.asyncJobLauncher = asyncJobLauncher;
+        this.fetchReimbursementProductJob = fetchReimbursementProductJob;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+        this.referenceFileFingerprintService = referenceFileFingerprintService;
+        this.medicationReferenceRepository = medicationReferenceRepository;
+    }
 
     @Bean
     public CommandLineRunner runJob() {
         return args -> {
+            if (startupMode == ReferenceStartupMode.SKIP_IF_POPULATED && medicationReferenceRepository.count() > 0) {
+                logger.info("Reference table already populated, skipping {}", fetchReimbursementProductJob.getName());
+                return;
+            }
+            // The async launcher returns as soon as the execution is created
+            JobLauncher launcher = startupMode == ReferenceStartupMode.BLOCKING ? jobLauncher : asyncJobLauncher;
+
+            JobExecution unfinished = restartFailed ? lastUnfinishedExecution() : null;
+            if (unfinished != null && unfinished.getStatus().isRunning()) {
+                logger.info("{} execution {} is running in another instance, skipping",
+                        fetchReimbursementProductJob.getName(), unfinished.getId());
+                return;
+            }
+            if (unfinished != null) {
+                // Same parameters, same JobInstance: Spring Batch restarts it and the
+                // reader seeks to the offset saved in the step execution context
+                logger.info("Restarting {} execution {} ({})", fetchReimbursementProductJob.getName(),
+                        unfinished.getId(), unfinished.getStatus());
+                launcher.run(fetchReimbursementProductJob, unfinished.getJobParameters());
+                return;
+            }
+
+            if (incremental && referenceFileFingerprintService.isUnchanged()) {
+                logger.info("Reference file unchanged since the last refresh, skipping {}",
+                        fetchReimbursementProductJob.getName());
+                return;
+            }
+
             JobParameters jobParameters = new JobParametersBuilder()
                     .addDate("uniqueness",new Date())
 //                    .addString("input_file", fileInput)
                     .toJobParameters();
 
-            jobLauncher.run(fetchReimbursementProductJob, jobParameters);
+            launcher.run(fetchReimbursementProductJob, jobParameters);
         };
     }
+
+    /**
+     * Finds the last reference import execution if it did not complete.
+     *
+     * Failed and stopped executions are restarted. An execution still marked as running
+     * may belong to another instance sharing the job repository, so it is only taken as
+     * abandoned, by a process that died before it could record its outcome, when neither
+     * it nor any of its steps was updated for {@code reference.import.abandoned-after-ms}.
+     * It is then marked as failed first, otherwise Spring Batch would refuse to restart it.
+     *
+     * @return The execution to restart, a live running execution, or null if the last one
+     * completed or there is none
+     */
+    private JobExecution lastUnfinishedExecution() {
+        JobInstance lastInstance = jobExplorer.getLastJobInstance(fetchReimbursementProductJob.getName());
+        if (lastInstance == null) {
+            return null;
+        }
+        JobExecution lastExecution = jobExplorer.getLastJobExecution(lastInstance);
+        if (lastExecution == null) {
+            return null;
+        }
+
+        BatchStatus status = lastExecution.getStatus();
+        if (status.isRunning()) {
+            LocalDateTime lastUpdated = lastUpdated(lastExecution);
+            LocalDateTime abandonedBefore = LocalDateTime.now().minus(Duration.ofMillis(abandonedAfterMillis));
+            if (lastUpdated != null && lastUpdated.isAfter(abandonedBefore)) {
+                return lastExecution;
+            }
+            logger.warn("{} execution {} is marked {} but was last updated at {}, taking it as abandoned",
+                    fetchReimbursementProductJob.getName(), lastExecution.getId(), status, lastUpdated);
+            markAbandonedAsFailed(lastExecution);
+            return lastExecution;
+        }
+        return status == BatchStatus.FAILED || status == BatchStatus.STOPPED ? lastExecution : null;
+    }
+
+    /**
+     * @return The last time the execution or one of its steps was saved; steps are saved on every commit
+     */
+    private static LocalDateTime lastUpdated(JobExecution jobExecution) {
+        LocalDateTime lastUpdated = jobExecution.getLastUpdated();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            LocalDateTime stepUpdated = stepExecution.getLastUpdated();
+            if (stepUpdated != null && (lastUpdated == null || stepUpdated.isAfter(lastUpdated))) {
+                lastUpdated = stepUpdated;
+            }
+        }
+        return lastUpdated;
+    }
+
+    private void markAbandonedAsFailed(JobExecution jobExecution) {
+        LocalDateTime now = LocalDateTime.now();
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED);
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+        }
+        jobExecution.setStatus(BatchStatus.FAILED);
+        jobExecution.setExitStatus(ExitStatus.FAILED);
+        jobExecution.setEndTime(now);
+        jobRepository.update(jobExecution);
+    }
 }
@@ -0,0 +1,18 @@
+package ma.mini_project_insurance_claim_records.scheduler;
+
+/**
+ * How {@link JobTrigger} runs the reference medication import when the application
+ * starts, selected with the {@code reference.import.startup-mode} property.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public enum ReferenceStartupMode {
+    /** Run the import before the application reports itself as started. */
+    BLOCKING,
+    /** Start the import in the background; readiness waits for the reference data. */
+    BACKGROUND,
+    /** Skip the import if the reference table already has products, otherwise run it in the background. */
+    SKIP_IF_POPULATED
+}
@@ -0,0 +1,180 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.batch.reader.CsvLineTokenizer;
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+import ma.mini_project_insurance_claim_records.dto.TreatmentDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link DossierSource} reading dossiers from a CSV file, one line per treatment.
+ *
+ * The first line is a header naming the columns, in any order, after the fields of
+ * {@link DossierDTO} and {@link TreatmentDTO}: {@code numeroAffiliation}, {@code nomAssure},
+ * {@code immatriculation}, {@code lienParente}, {@code montantTotalFrais},
+ * {@code prixConsultation}, {@code nombrePiecesJointes}, {@code nomBeneficiaire},
+ * {@code dateDepotDossier}, {@code codeBarre}, {@code nomMedicament}, {@code typeMedicament},
+ * {@code prixMedicament} and {@code existe}. Only {@code numeroAffiliation} is required.
+ *
+ * Consecutive lines with the same affiliation number form one dossier, whose fields are
+ * taken from its first line; a line with an empty {@code codeBarre} adds no treatment.
+ * Lines are read on demand with one line of look-ahead, so only the dossier being built
+ * is held in memory. A dossier with an unparsable value fails with an
+ * {@link IllegalArgumentException}, and reading resumes with the next dossier.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class CsvFileDossierSource implements DossierSource, AutoCloseable {
+
+    private static final List<String> COLUMNS = List.of(
+            "numeroAffiliation", "nomAssure", "immatriculation", "lienParente", "montantTotalFrais",
+            "prixConsultation", "nombrePiecesJointes", "nomBeneficiaire", "dateDepotDossier",
+            "codeBarre", "nomMedicament", "typeMedicament", "prixMedicament", "existe");
+
+    private static final int AFFILIATION = 0, NOM_ASSURE = 1, IMMATRICULATION = 2, LIEN_PARENTE = 3,
+            MONTANT_TOTAL = 4, PRIX_CONSULTATION = 5, PIECES_JOINTES = 6, NOM_BENEFICIAIRE = 7,
+            DATE_DEPOT = 8, CODE_BARRE = 9, NOM_MEDICAMENT = 10, TYPE_MEDICAMENT = 11,
+            PRIX_MEDICAMENT = 12, EXISTE = 13;
+
+    private final BufferedReader reader;
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+
+    /** Field index of every column of {@link #COLUMNS} in the file, or -1 if absent. */
+    private final int[] fieldIndexes = new int[COLUMNS.size()];
+
+    /** The line read ahead, or null at the end of the file. */
+    private Row pending;
+
+    /** Number of the last line read; the header is line 1. */
+    private long lineNumber = 1;
+
+    /**
+     * Opens a file and reads its header.
+     *
+     * @param file The CSV file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the header has no {@code numeroAffiliation} column
+     */
+    public CsvFileDossierSource(Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            Arrays.fill(fieldIndexes, -1);
+            String header = reader.readLine();
+            if (header != null) {
+                byte[] bytes = header.getBytes(StandardCharsets.UTF_8);
+                int count = tokenizer.tokenize(bytes, 0, bytes.length);
+                for (int i = 0; i < count; i++) {
+                    int column = COLUMNS.indexOf(tokenizer.text(i).replace("\uFEFF", ""));
+                    if (column >= 0) {
+                        fieldIndexes[column] = i;
+                    }
+                }
+                if (fieldIndexes[AFFILIATION] < 0) {
+                    throw new IllegalArgumentException("No numeroAffiliation column in the header of " + file);
+                }
+                pending = readRow();
+            }
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized DossierDTO next() throws IOException {
+        if (pending == null) {
+            return null;
+        }
+        List<Row> rows = new ArrayList<>();
+        Row first = pending;
+        do {
+            rows.add(pending);
+            pending = readRow();
+        } while (pending != null && Objects.equals(pending.value(AFFILIATION), first.value(AFFILIATION)));
+
+        try {
+            List<TreatmentDTO> treatments = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                if (row.value(CODE_BARRE) != null) {
+                    treatments.add(new TreatmentDTO(
+                            Long.parseLong(row.value(CODE_BARRE)),
+                            row.value(NOM_MEDICAMENT),
+                            row.value(TYPE_MEDICAMENT),
+                            parseDouble(row.value(PRIX_MEDICAMENT)),
+                            Boolean.parseBoolean(row.value(EXISTE))));
+                }
+            }
+            String date = first.value(DATE_DEPOT);
+            String pieces = first.value(PIECES_JOINTES);
+            return new DossierDTO(
+                    first.value(AFFILIATION),
+                    first.value(NOM_ASSURE),
+                    first.value(IMMATRICULATION),
+                    first.value(LIEN_PARENTE),
+                    parseDouble(first.value(MONTANT_TOTAL)),
+                    parseDouble(first.value(PRIX_CONSULTATION)),
+                    pieces != null ? Integer.parseInt(pieces) : 0,
+                    first.value(NOM_BENEFICIAIRE),
+                    date != null ? LocalDate.parse(date) : null,
+                    treatments);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid dossier " + first.value(AFFILIATION)
+                    + " at line " + first.lineNumber() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        pending = null;
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // Nothing left to read from the file either way
+        }
+    }
+
+    /**
+     * @return The next non-blank line, or null at the end of the file
+     */
+    private Row readRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int count = tokenizer.tokenize(bytes, 0, bytes.length);
+        String[] values = new String[COLUMNS.size()];
+        for (int column = 0; column < values.length; column++) {
+            int index = fieldIndexes[column];
+            String value = index >= 0 && index < count ? tokenizer.text(index) : "";
+            values[column] = value.isEmpty() ? null : value;
+        }
+        return new Row(values, lineNumber);
+    }
+
+    private static double parseDouble(String value) {
+        return value != null ? Double.parseDouble(value) : 0;
+    }
+
+    private record Row(String[] values, long lineNumber) {
+        String value(int column) {
+            return values[column];
+        }
+    }
+}
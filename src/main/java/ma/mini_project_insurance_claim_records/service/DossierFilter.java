@@ -0,0 +1,32 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Criteria of a dossier query. Every criterion is optional; a null value does not filter.
+ *
+ * @param affiliationNumber Exact affiliation number
+ * @param submittedFrom First submission date included
+ * @param submittedTo Last submission date included
+ * @param minReimbursed Smallest reimbursed amount included
+ * @param maxReimbursed Largest reimbursed amount included
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public record DossierFilter(String affiliationNumber,
+                            LocalDate submittedFrom,
+                            LocalDate submittedTo,
+                            BigDecimal minReimbursed,
+                            BigDecimal maxReimbursed) {
+
+    /**
+     * @return false when a range has its lower bound above its upper bound
+     */
+    public boolean isValid() {
+        return (submittedFrom == null || submittedTo == null || !submittedFrom.isAfter(submittedTo))
+                && (minReimbursed == null || maxReimbursed == null || minReimbursed.compareTo(maxReimbursed) <= 0);
+    }
+}
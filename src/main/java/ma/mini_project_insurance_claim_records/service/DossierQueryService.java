@@ -0,0 +1,176 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ma.mini_project_insurance_claim_records.dto.DossierPageDTO;
+import ma.mini_project_insurance_claim_records.dto.DossierSummaryDTO;
+import ma.mini_project_insurance_claim_records.dto.TreatmentSummaryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read side of the processed dossiers.
+ *
+ * Dossiers are listed in affiliation number order with keyset pagination: a page starts
+ * strictly after the last affiliation number of the previous one, so every page is an
+ * index range scan on the primary key, however deep into the table it is, instead of an
+ * {@code OFFSET} that reads and discards every preceding row.
+ *
+ * Results are projected straight into DTOs, never into entities. A page takes two
+ * queries: one for the dossier columns, and one for the treatments of every dossier of
+ * the page at once ({@code dossier_id = ANY(?)}), which avoids loading treatments lazily
+ * dossier by dossier.
+ *
+ * Query latency is published as the {@code dossier.query} timer, with percentiles and a
+ * service level objective bucket at {@code dossier.query.latency-target-ms}.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class DossierQueryService {
+
+    private static final String SELECT_DOSSIERS = """
+            SELECT affiliation_number, insured_name, beneficiary_name, lien_parente,
+                   dossier_submission_date, treatment_date, nombre_pieces_jointes,
+                   prix_consultation, total_cost, reimbursed_amount
+            FROM dossier
+            """;
+
+    private static final String SELECT_TREATMENTS = """
+            SELECT dossier_id, code_barre, nom_medicament, type_medicament, prix_medicament, existe
+            FROM treatment
+            WHERE dossier_id = ANY(?)
+            ORDER BY dossier_id, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPageSize;
+    private final Timer queryTimer;
+
+    public DossierQueryService(JdbcTemplate jdbcTemplate,
+                               @Value("${dossier.query.max-page-size:1000}") int maxPageSize,
+                               @Value("${dossier.query.latency-target-ms:100}") long latencyTargetMillis,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPageSize = maxPageSize;
+        this.queryTimer = Timer.builder("dossier.query")
+                .description("Time to read one page of dossiers and their treatments")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(latencyTargetMillis))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads one page of dossiers matching a filter.
+     *
+     * @param filter The criteria the dossiers must match
+     * @param after The affiliation number the page starts after, or null for the first page
+     * @param limit The maximum number of dossiers, capped at {@code dossier.query.max-page-size}
+     * @return The page, with the cursor of the next one
+     */
+    @Transactional(readOnly = true)
+    public DossierPageDTO findPage(DossierFilter filter, String after, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        return queryTimer.record(() -> {
+            // One extra row tells whether there is a next page
+            List<DossierSummaryDTO> dossiers = findDossiers(filter, after, size + 1);
+            String nextCursor = null;
+            if (dossiers.size() > size) {
+                dossiers = dossiers.subList(0, size);
+                nextCursor = dossiers.get(size - 1).getAffiliationNumber();
+            }
+            attachTreatments(dossiers);
+            return new DossierPageDTO(dossiers, nextCursor);
+        });
+    }
+
+    private List<DossierSummaryDTO> findDossiers(DossierFilter filter, String after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_DOSSIERS).append("WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (after != null) {
+            sql.append(" AND affiliation_number > ?");
+            args.add(after);
+        }
+        if (filter.affiliationNumber() != null) {
+            sql.append(" AND affiliation_number = ?");
+            args.add(filter.affiliationNumber());
+        }
+        if (filter.submittedFrom() != null) {
+            sql.append(" AND dossier_submission_date >= ?");
+            args.add(Date.valueOf(filter.submittedFrom()));
+        }
+        if (filter.submittedTo() != null) {
+            sql.append(" AND dossier_submission_date <= ?");
+            args.add(Date.valueOf(filter.submittedTo()));
+        }
+        if (filter.minReimbursed() != null) {
+            sql.append(" AND reimbursed_amount >= ?");
+            args.add(filter.minReimbursed());
+        }
+        if (filter.maxReimbursed() != null) {
+            sql.append(" AND reimbursed_amount <= ?");
+            args.add(filter.maxReimbursed());
+        }
+        sql.append(" ORDER BY affiliation_number LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (resultSet, row) -> new DossierSummaryDTO(
+                resultSet.getString(1),
+                resultSet.getString(2),
+                resultSet.getString(3),
+                resultSet.getString(4),
+                toLocalDate(resultSet.getDate(5)),
+                toLocalDate(resultSet.getDate(6)),
+                resultSet.getInt(7),
+                resultSet.getBigDecimal(8),
+                resultSet.getBigDecimal(9),
+                resultSet.getBigDecimal(10),
+                new ArrayList<>()), args.toArray());
+    }
+
+    private void attachTreatments(List<DossierSummaryDTO> dossiers) {
+        if (dossiers.isEmpty()) {
+            return;
+        }
+        Map<String, DossierSummaryDTO> byId = new HashMap<>(dossiers.size() * 2);
+        String[] ids = new String[dossiers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dossiers.get(i).getAffiliationNumber();
+            byId.put(ids[i], dossiers.get(i));
+        }
+
+        jdbcTemplate.query(SELECT_TREATMENTS,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("varchar", ids)),
+                (RowCallbackHandler) resultSet -> byId.get(resultSet.getString(1))
+                        .getTreatments().add(toTreatment(resultSet)));
+    }
+
+    private static TreatmentSummaryDTO toTreatment(ResultSet resultSet) throws SQLException {
+        long codeBarre = resultSet.getLong(2);
+        return new TreatmentSummaryDTO(
+                resultSet.wasNull() ? null : codeBarre,
+                resultSet.getString(3),
+                resultSet.getString(4),
+                resultSet.getBigDecimal(5),
+                resultSet.getBoolean(6));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,15 @@
+package ma.mini_project_insurance_claim_records.service;
+
+/**
+ * Outcome of saving a chunk of dossiers with {@link DossierService#saveDossiers}.
+ *
+ * @param inserted The number of dossiers inserted
+ * @param skipped The number of dossiers skipped because they were already stored,
+ *                repeated in the chunk, or had no affiliation number
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public record DossierSaveResult(int inserted, int skipped) {
+}
@@ -1,58 +1,246 @@
 package ma.mini_project_insurance_claim_records.service;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import ma.mini_project_insurance_claim_records.model.Dossier;
-import ma.mini_project_insurance_claim_records.repository.DossierRepository;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Service for persisting processed dossiers to the database.
  * 
  * This service implements the logic for efficiently saving dossier records while avoiding
- * duplicate entries. It checks the database before saving to ensure that dossiers
- * with the same affiliation number are not inserted twice.
+ * duplicate entries. A whole chunk is written with one statement per table: the dossiers
+ * are passed as column arrays to a single {@code INSERT ... SELECT FROM unnest(...)} with
+ * {@code ON CONFLICT DO NOTHING}, which returns the affiliation numbers it inserted, and
+ * the treatments of those dossiers are written the same way. Treatment ids are reserved
+ * from their sequence in blocks with one query, so a chunk takes three statements whatever
+ * its size. The {@link ReimbursementRollupService} rollups are then updated with the
+ * inserted dossiers, still in the chunk transaction.
+ * 
+ * The database decides which dossiers are new, so nothing is loaded beforehand, and two
+ * chunks inserting the same affiliation number concurrently cannot both succeed: the
+ * second one waits on the primary key and then skips the row.
+ * 
+ * Inserted and skipped dossiers are counted in the {@code dossier.save} counter, tagged
+ * {@code result=inserted|skipped}.
  * 
  * @author Yeasthetic
  * @version 1.0
  * @since 1.0
  */
 @Service
-@AllArgsConstructor
 public class DossierService {
 
-    private final DossierRepository dossierRepository;
+    private static final String INSERT_DOSSIERS = """
+            INSERT INTO dossier (affiliation_number, beneficiary_name, insured_name, lien_parente,
+                                 dossier_submission_date, treatment_date, nombre_pieces_jointes,
+                                 prix_consultation, total_cost, reimbursed_amount)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[],
+                                 ?::date[], ?::date[], ?::int[],
+                                 ?::numeric[], ?::numeric[], ?::numeric[])
+            ON CONFLICT (affiliation_number) DO NOTHING
+            RETURNING affiliation_number
+            """;
+
+    private static final String INSERT_TREATMENTS = """
+            INSERT INTO treatment (id, code_barre, existe, nom_medicament, type_medicament,
+                                   prix_medicament, dossier_id)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::boolean[], ?::varchar[], ?::varchar[],
+                                 ?::numeric[], ?::varchar[])
+            """;
+
+    // Every value is the low end of a block of Treatment.ID_ALLOCATION_SIZE ids, the same
+    // pooled-lo contract Hibernate uses, so both can draw from the sequence concurrently
+    private static final String NEXT_TREATMENT_ID_BLOCKS =
+            "SELECT nextval('" + Treatment.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReimbursementRollupService reimbursementRollupService;
+    private final Counter insertedCounter;
+    private final Counter skippedCounter;
+
+    public DossierService(JdbcTemplate jdbcTemplate,
+                          ReimbursementRollupService reimbursementRollupService,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reimbursementRollupService = reimbursementRollupService;
+        this.insertedCounter = saveCounter(meterRegistry, "inserted");
+        this.skippedCounter = saveCounter(meterRegistry, "skipped");
+    }
+
+    private static Counter saveCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("dossier.save")
+                .description("Dossiers inserted or skipped as duplicates by the dossier writer")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 
     /**
      * Saves a list of dossiers to the database if they do not already exist.
      * 
-     * This method prevents duplicate entries by checking if dossiers with the same
-     * affiliation numbers already exist in the database before attempting to save.
-     * Only new dossiers are persisted.
+     * This method prevents duplicate entries by letting the database skip every dossier
+     * whose affiliation number is already stored. Only new dossiers, and their
+     * treatments, are persisted.
      *
      * @param dossiers The list of dossiers to save
+     * @return How many dossiers were inserted and how many were skipped
      */
-    public void saveDossiers(List<? extends Dossier> dossiers) {
-        // Extract affiliation numbers
-        List<String> ids = dossiers.stream()
-                .map(Dossier::getAffiliationNumber)
-                .collect(Collectors.toList());
-
-        // Find existing IDs in the database
-        List<String> existingIds = dossierRepository.findAllById(ids).stream()
-                .map(Dossier::getAffiliationNumber)
-                .toList();
-
-        // Filter dossiers to only those not already existing
-        List<Dossier> itemsToSave = dossiers.stream()
-                .filter(item -> !existingIds.contains(item.getAffiliationNumber()))
-                .collect(Collectors.toList());
-
-        // Save new items if the list is not empty
-        if (!itemsToSave.isEmpty()) {
-            dossierRepository.saveAll(itemsToSave);
+    public DossierSaveResult saveDossiers(List<? extends Dossier> dossiers) {
+        List<Dossier> candidates = new ArrayList<>(dossiers.size());
+        for (Dossier dossier : dossiers) {
+            if (dossier.getAffiliationNumber() != null) {
+                candidates.add(dossier);
+            }
         }
+
+        Set<String> insertedIds = candidates.isEmpty() ? Set.of() : insertDossiers(candidates);
+
+        // Only the treatments of inserted dossiers, each one once
+        List<Dossier> inserted = new ArrayList<>(insertedIds.size());
+        List<TreatmentRow> treatments = new ArrayList<>();
+        Set<String> attached = new HashSet<>();
+        for (Dossier dossier : candidates) {
+            String id = dossier.getAffiliationNumber();
+            if (!insertedIds.contains(id) || !attached.add(id)) {
+                continue;
+            }
+            inserted.add(dossier);
+            if (dossier.getTreatments() == null) {
+                continue;
+            }
+            for (Treatment treatment : dossier.getTreatments()) {
+                treatments.add(new TreatmentRow(treatment, id));
+            }
+        }
+        if (!treatments.isEmpty()) {
+            insertTreatments(treatments);
+        }
+        reimbursementRollupService.record(inserted);
+
+        DossierSaveResult result = new DossierSaveResult(insertedIds.size(), dossiers.size() - insertedIds.size());
+        insertedCounter.increment(result.inserted());
+        skippedCounter.increment(result.skipped());
+        return result;
+    }
+
+    /**
+     * @return The affiliation numbers actually inserted
+     */
+    private Set<String> insertDossiers(List<Dossier> dossiers) {
+        int size = dossiers.size();
+        String[] ids = new String[size];
+        String[] beneficiaryNames = new String[size];
+        String[] insuredNames = new String[size];
+        String[] lienParentes = new String[size];
+        String[] submissionDates = new String[size];
+        String[] treatmentDates = new String[size];
+        Integer[] piecesJointes = new Integer[size];
+        BigDecimal[] prixConsultations = new BigDecimal[size];
+        BigDecimal[] totalCosts = new BigDecimal[size];
+        BigDecimal[] reimbursedAmounts = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            Dossier dossier = dossiers.get(i);
+            ids[i] = dossier.getAffiliationNumber();
+            beneficiaryNames[i] = dossier.getBeneficiaryName();
+            insuredNames[i] = dossier.getInsuredName();
+            lienParentes[i] = dossier.getLienParente();
+            submissionDates[i] = toText(dossier.getDossierSubmissionDate());
+            treatmentDates[i] = toText(dossier.getTreatmentDate());
+            piecesJointes[i] = dossier.getNombrePiecesJointes();
+            prixConsultations[i] = toDecimal(dossier.getPrixConsultation());
+            totalCosts[i] = toDecimal(dossier.getTotalCost());
+            reimbursedAmounts[i] = toDecimal(dossier.getReimbursedAmount());
+        }
+
+        Set<String> inserted = new HashSet<>();
+        jdbcTemplate.query(INSERT_DOSSIERS, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("varchar", ids));
+            statement.setArray(2, connection.createArrayOf("varchar", beneficiaryNames));
+            statement.setArray(3, connection.createArrayOf("varchar", insuredNames));
+            statement.setArray(4, connection.createArrayOf("varchar", lienParentes));
+            statement.setArray(5, connection.createArrayOf("varchar", submissionDates));
+            statement.setArray(6, connection.createArrayOf("varchar", treatmentDates));
+            statement.setArray(7, connection.createArrayOf("int4", piecesJointes));
+            statement.setArray(8, connection.createArrayOf("numeric", prixConsultations));
+            statement.setArray(9, connection.createArrayOf("numeric", totalCosts));
+            statement.setArray(10, connection.createArrayOf("numeric", reimbursedAmounts));
+        }, (RowCallbackHandler) resultSet -> inserted.add(resultSet.getString(1)));
+        return inserted;
+    }
+
+    private void insertTreatments(List<TreatmentRow> rows) {
+        int size = rows.size();
+        long[] ids = nextTreatmentIds(size);
+        Long[] treatmentIds = new Long[size];
+        Long[] codes = new Long[size];
+        Boolean[] existes = new Boolean[size];
+        String[] names = new String[size];
+        String[] types = new String[size];
+        BigDecimal[] prices = new BigDecimal[size];
+        String[] dossierIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            Treatment treatment = rows.get(i).treatment();
+            treatment.setId(ids[i]);
+            treatmentIds[i] = ids[i];
+            codes[i] = treatment.getCodeBarre();
+            existes[i] = treatment.isExiste();
+            names[i] = treatment.getNomMedicament();
+            types[i] = treatment.getTypeMedicament();
+            prices[i] = toDecimal(treatment.getPrixMedicament());
+            dossierIds[i] = rows.get(i).dossierId();
+        }
+
+        jdbcTemplate.update(INSERT_TREATMENTS, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf("int8", treatmentIds));
+            statement.setArray(2, connection.createArrayOf("int8", codes));
+            statement.setArray(3, connection.createArrayOf("bool", existes));
+            statement.setArray(4, connection.createArrayOf("varchar", names));
+            statement.setArray(5, connection.createArrayOf("varchar", types));
+            statement.setArray(6, connection.createArrayOf("numeric", prices));
+            statement.setArray(7, connection.createArrayOf("varchar", dossierIds));
+        });
+    }
+
+    /**
+     * Reserves {@code count} treatment ids with a single query.
+     *
+     * @return The reserved ids, in ascending order within each block
+     */
+    private long[] nextTreatmentIds(int count) {
+        int blocks = (count + Treatment.ID_ALLOCATION_SIZE - 1) / Treatment.ID_ALLOCATION_SIZE;
+        long[] ids = new long[count];
+        int[] next = {0};
+        jdbcTemplate.query(NEXT_TREATMENT_ID_BLOCKS, (RowCallbackHandler) resultSet -> {
+            long low = resultSet.getLong(1);
+            for (int i = 0; i < Treatment.ID_ALLOCATION_SIZE && next[0] < count; i++) {
+                ids[next[0]++] = low + i;
+            }
+        }, blocks);
+        return ids;
+    }
+
+    private static String toText(LocalDate date) {
+        return date != null ? date.toString() : null;
+    }
+
+    private static BigDecimal toDecimal(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    private record TreatmentRow(Treatment treatment, String dossierId) {
     }
 }
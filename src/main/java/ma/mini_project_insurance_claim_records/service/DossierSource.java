@@ -0,0 +1,31 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+
+/**
+ * Source of dossiers consumed by the dossier batch reader.
+ * 
+ * Decouples the batch reader from the way dossiers reach the application, whether
+ * as a list already bound from a request body or as a stream parsed while the
+ * upload is still in progress.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public interface DossierSource {
+
+    /**
+     * Returns the next dossier, waiting for it if the source is still being filled.
+     * 
+     * @return The next {@link DossierDTO}, or null when the source is exhausted
+     * @throws Exception if the source failed while producing dossiers
+     */
+    DossierDTO next() throws Exception;
+
+    /**
+     * Signals that no more dossiers will be consumed, releasing any waiting producer.
+     */
+    default void close() {
+    }
+}
@@ -5,15 +5,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Singleton component that maintains a shared context for dossier data during batch processing.
+ * Registry of the dossier payloads waiting to be processed by batch jobs.
  * 
- * This component acts as a bridge between the REST controller and the batch reader,
- * providing thread-safe storage for dossier data that needs to be processed by the batch job.
- * It ensures isolation between job runs by clearing previous data before accepting new dossiers.
+ * This component acts as a bridge between the REST controller and the batch reader.
+ * Each submitted payload is registered under its own id, which is passed to the job
+ * as the {@value #PAYLOAD_ID_PARAMETER} job parameter; the step-scoped reader of that
+ * job execution then reads only from its own {@link DossierSource}. Concurrent
+ * submissions therefore never overwrite each other, and a payload is released as soon
+ * as its job execution finishes.
  * 
  * @author Yeasthetic
  * @version 1.0
@@ -23,43 +28,62 @@ import java.util.List;
 public class DossiersContext {
     private static final Logger logger = LoggerFactory.getLogger(DossiersContext.class);
 
-    /** The list of dossiers to be processed. */
-    private List<DossierDTO> dossiers = new ArrayList<>();
+    /** Name of the job parameter carrying the payload id. */
+    public static final String PAYLOAD_ID_PARAMETER = "payloadId";
+
+    /** The dossier sources of the pending and running job executions, by payload id. */
+    private final Map<String, DossierSource> sources = new ConcurrentHashMap<>();
 
     /**
-     * Sets the list of dossiers in the context, clearing any previously stored dossiers.
-     * 
-     * This method ensures that each batch job run has a clean slate by clearing
-     * the context before adding new dossiers. This pattern prevents data spillover
-     * between multiple job executions.
+     * Registers a list of dossiers to be processed by a job execution.
      * 
      * @param dossiers The list of dossiers to process. If null, no dossiers are added.
+     * @return The payload id to pass to the job
      */
-    public void setDossiers(List<DossierDTO> dossiers) {
-        logger.info("Setting dossiers in context");
-        logger.info("Number of dossiers to set: {}", dossiers != null ? dossiers.size() : "NULL");
+    public String register(List<DossierDTO> dossiers) {
+        logger.info("Number of dossiers to register: {}", dossiers != null ? dossiers.size() : "NULL");
+        return register(new ListDossierSource(dossiers));
+    }
 
-        // Clear existing dossiers
-        this.dossiers.clear();
+    /**
+     * Registers the source a job execution will read its dossiers from.
+     * 
+     * @param source The dossier source of the job execution
+     * @return The payload id to pass to the job
+     */
+    public String register(DossierSource source) {
+        String payloadId = UUID.randomUUID().toString();
+        sources.put(payloadId, source);
+        logger.info("Registered dossier payload {} ({} pending)", payloadId, sources.size());
+        return payloadId;
+    }
 
-        // Add new dossiers
-        if (dossiers != null) {
-            this.dossiers.addAll(dossiers);
+    /**
+     * Retrieves the dossier source registered under a payload id.
+     * 
+     * @param payloadId The payload id passed to the job
+     * @return The {@link DossierSource} of the job execution
+     * @throws IllegalStateException if no payload is registered under this id
+     */
+    public DossierSource getSource(String payloadId) {
+        DossierSource source = payloadId != null ? sources.get(payloadId) : null;
+        if (source == null) {
+            throw new IllegalStateException("No dossier payload registered for id " + payloadId);
         }
-
-        logger.info("Current dossiers in context after setting: {}", this.dossiers.size());
+        return source;
     }
 
     /**
-     * Retrieves a copy of the current dossiers from the context.
-     * 
-     * Returns a defensive copy to prevent external modifications of the internal list.
+     * Closes and forgets the dossier source registered under a payload id, so that its
+     * dossiers can be garbage collected.
      * 
-     * @return A copy of the list of dossiers in the context
+     * @param payloadId The payload id passed to the job
      */
-    public List<DossierDTO> getDossiers() {
-        logger.info("Retrieving dossiers from context");
-        logger.info("Number of dossiers in context: {}", dossiers.size());
-        return new ArrayList<>(dossiers); // Return a copy to prevent external modifications
+    public void release(String payloadId) {
+        DossierSource source = payloadId != null ? sources.remove(payloadId) : null;
+        if (source != null) {
+            source.close();
+            logger.info("Released dossier payload {}", payloadId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * {@link DossierSource} reading a JSON array of dossiers straight from a file.
+ * 
+ * The file is walked token by token with a Jackson {@link JsonParser}, and one
+ * {@link DossierDTO} is bound each time the reader asks for the next dossier, so only
+ * that dossier is held in memory whatever the size of the file, and no parser thread
+ * or buffer is involved.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class JsonFileDossierSource implements DossierSource, AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean exhausted;
+
+    /**
+     * Opens a file and positions the parser on its top-level array.
+     * 
+     * @param file The JSON file, holding an array of dossiers
+     * @param objectMapper The mapper binding each dossier
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file does not start with an array
+     */
+    public JsonFileDossierSource(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(file.toFile());
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalArgumentException("Expected a JSON array of dossiers in " + file);
+        }
+    }
+
+    @Override
+    public synchronized DossierDTO next() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            return objectMapper.readValue(parser, DossierDTO.class);
+        }
+        exhausted = true;
+        if (token != JsonToken.END_ARRAY) {
+            throw new IllegalArgumentException("Expected a dossier object but found " + token
+                    + " at " + parser.currentLocation());
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void close() {
+        exhausted = true;
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // Nothing left to read from the file either way
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link DossierSource} over a list of dossiers already held in memory.
+ * 
+ * The list is not copied. Positions are handed out atomically, so the source can be
+ * shared by concurrent readers.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class ListDossierSource implements DossierSource {
+
+    private final List<DossierDTO> dossiers;
+    private final AtomicInteger position = new AtomicInteger();
+
+    public ListDossierSource(List<DossierDTO> dossiers) {
+        this.dossiers = dossiers != null ? dossiers : List.of();
+    }
+
+    @Override
+    public DossierDTO next() {
+        int index = position.getAndIncrement();
+        return index < dossiers.size() ? dossiers.get(index) : null;
+    }
+
+    /**
+     * @return The number of dossiers in the source
+     */
+    public int size() {
+        return dossiers.size();
+    }
+}
@@ -0,0 +1,324 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * In-process fuzzy matching engine for reference medications.
+ *
+ * Exact lookups require the submitted code, name and price to line up with the reference
+ * table, so a typo in the medication name or a small price drift drops the treatment.
+ * This engine finds the best candidate instead, using a trigram inverted index over the
+ * normalized NOM and DCI1 of every {@link TreatmentProduct}:
+ * <ol>
+ *   <li>The query name is split into trigrams and each trigram's posting list is walked to
+ *       count the trigrams every product shares with the query.</li>
+ *   <li>Each candidate gets a Dice similarity on NOM and on DCI1 (weighted lower).</li>
+ *   <li>Candidates whose base price is outside the tolerance band are rejected, and the
+ *       similarity is scaled down as the price moves away from the submitted one.</li>
+ *   <li>A candidate with the submitted code gets a bonus.</li>
+ * </ol>
+ * The best candidate is returned if its score reaches the configured minimum.
+ *
+ * Only products sharing a trigram with the query are ever scored, so no table scan and no
+ * {@code LIKE '%...%'} is involved. The per-product hit counters are scratch arrays taken
+ * from a small pool and reset candidate by candidate after each lookup, so a lookup costs
+ * in proportion to its candidates rather than to the size of the table, even on the
+ * short-lived virtual threads of the batch executors. The index is rebuilt together with the
+ * {@link MedicationReferenceIndex} and swapped with a single volatile write.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class MedicationMatchingEngine {
+
+    /** Symbols of a normalized name: space, A-Z and 0-9. */
+    private static final int ALPHABET = 37;
+    private static final int TRIGRAMS = ALPHABET * ALPHABET * ALPHABET;
+
+    /** Weight of a DCI1 (generic name) similarity compared to a NOM similarity. */
+    private static final double DCI_WEIGHT = 0.8;
+
+    /** Similarity kept at the edge of the price tolerance band. */
+    private static final double PRICE_EDGE_FACTOR = 0.8;
+
+    /** Score added when the candidate has the submitted product code. */
+    private static final double CODE_BONUS = 0.25;
+
+    private static final int[] NO_POSTINGS = new int[0];
+
+    /** Scratch buffers kept between lookups; more concurrent lookups allocate their own. */
+    private static final int MAX_POOLED_SCRATCH = 32;
+
+    private final double priceTolerance;
+    private final double minScore;
+
+    private volatile TrigramIndex index = TrigramIndex.build(List.of());
+
+    /** Scratch buffers of finished lookups; the executors use virtual threads, so they are pooled rather than per thread. */
+    private final BlockingQueue<Scratch> scratchPool = new ArrayBlockingQueue<>(MAX_POOLED_SCRATCH);
+
+    public MedicationMatchingEngine(@Value("${medication.reference.fuzzy.price-tolerance:0.05}") double priceTolerance,
+                                    @Value("${medication.reference.fuzzy.min-score:0.6}") double minScore) {
+        this.priceTolerance = priceTolerance;
+        this.minScore = minScore;
+    }
+
+    /**
+     * Rebuilds the trigram index from the given reference products and swaps it in.
+     *
+     * @param products The whole reference table
+     */
+    public void rebuild(List<TreatmentProduct> products) {
+        this.index = TrigramIndex.build(products);
+    }
+
+    /**
+     * Finds the reference product that best matches a treatment.
+     *
+     * @param code The submitted product code, may be null
+     * @param normalizedName The submitted medication name, already normalized
+     * @param price The submitted price
+     * @return The best scoring {@link TreatmentProduct}, or null if no candidate reaches the minimum score
+     */
+    public TreatmentProduct findBest(Long code, String normalizedName, Money price) {
+        TrigramIndex current = this.index;
+        if (normalizedName == null || normalizedName.isEmpty() || price == null || current.size() == 0) {
+            return null;
+        }
+
+        int[] queryTrigrams = trigrams(normalizedName);
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        scratch.ensureCapacity(current.size());
+        int[] nameHits = scratch.nameHits;
+        int[] dciHits = scratch.dciHits;
+        int[] candidates = scratch.candidates;
+        int candidateCount = 0;
+        try {
+            for (int trigram : queryTrigrams) {
+                for (int product : current.namePostings(trigram)) {
+                    if (nameHits[product]++ == 0 && dciHits[product] == 0) {
+                        candidates[candidateCount++] = product;
+                    }
+                }
+                for (int product : current.dciPostings(trigram)) {
+                    if (dciHits[product]++ == 0 && nameHits[product] == 0) {
+                        candidates[candidateCount++] = product;
+                    }
+                }
+            }
+
+            int codeMatch = code != null ? Arrays.binarySearch(current.codes, code) : -1;
+            if (codeMatch >= 0 && nameHits[codeMatch] == 0 && dciHits[codeMatch] == 0) {
+                candidates[candidateCount++] = codeMatch;
+            }
+
+            double submittedPrice = price.toDouble();
+            int best = -1;
+            double bestScore = minScore;
+            for (int c = 0; c < candidateCount; c++) {
+                int product = candidates[c];
+                double priceFactor = priceFactor(current.prices[product], submittedPrice);
+                if (!(priceFactor > 0)) {
+                    continue;
+                }
+                double nameSimilarity = dice(nameHits[product], queryTrigrams.length, current.nameTrigramCounts[product]);
+                double dciSimilarity = DCI_WEIGHT * dice(dciHits[product], queryTrigrams.length, current.dciTrigramCounts[product]);
+                double score = Math.max(nameSimilarity, dciSimilarity) * priceFactor;
+                if (product == codeMatch) {
+                    score += CODE_BONUS;
+                }
+                if (score >= bestScore) {
+                    bestScore = score;
+                    best = product;
+                }
+            }
+            return best >= 0 ? current.products[best] : null;
+        } finally {
+            // Only the counters of the candidates were touched
+            for (int c = 0; c < candidateCount; c++) {
+                nameHits[candidates[c]] = 0;
+                dciHits[candidates[c]] = 0;
+            }
+            scratchPool.offer(scratch);
+        }
+    }
+
+    /**
+     * @return 1 for an exact price, decreasing to {@link #PRICE_EDGE_FACTOR} at the edge of
+     *         the tolerance band, and 0 outside of it
+     */
+    private double priceFactor(double referencePrice, double submittedPrice) {
+        double difference = Math.abs(referencePrice - submittedPrice);
+        if (difference == 0) {
+            return 1;
+        }
+        double allowed = priceTolerance * Math.max(Math.abs(referencePrice), Math.abs(submittedPrice));
+        if (difference > allowed) {
+            return 0;
+        }
+        return 1 - (1 - PRICE_EDGE_FACTOR) * (difference / allowed);
+    }
+
+    private static double dice(int shared, int queryCount, int documentCount) {
+        return queryCount + documentCount == 0 ? 0 : (2.0 * shared) / (queryCount + documentCount);
+    }
+
+    /**
+     * Splits a normalized name, padded with one space on each side, into its distinct
+     * trigrams, each encoded as a base-37 integer.
+     */
+    static int[] trigrams(String normalized) {
+        int length = normalized.length() + 2;
+        if (length < 3) {
+            return NO_POSTINGS;
+        }
+        int[] trigrams = new int[length - 2];
+        int first = 0;
+        int second = symbol(normalized, 0);
+        for (int i = 0; i < trigrams.length; i++) {
+            int third = i + 1 < normalized.length() ? symbol(normalized, i + 1) : 0;
+            trigrams[i] = (first * ALPHABET + second) * ALPHABET + third;
+            first = second;
+            second = third;
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static int symbol(String normalized, int position) {
+        char c = normalized.charAt(position);
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+
+    /**
+     * Hit counters and candidate list of one lookup at a time, indexed by product. Every
+     * counter is zero while pooled; the arrays only grow with the reference table.
+     */
+    private static final class Scratch {
+        int[] nameHits = NO_POSTINGS;
+        int[] dciHits = NO_POSTINGS;
+        int[] candidates = NO_POSTINGS;
+
+        void ensureCapacity(int size) {
+            if (nameHits.length < size) {
+                nameHits = new int[size];
+                dciHits = new int[size];
+                candidates = new int[size];
+            }
+        }
+    }
+
+    /**
+     * Immutable trigram postings over the reference table. Products are numbered by their
+     * position in the code-sorted {@link #products} array.
+     */
+    private static final class TrigramIndex {
+        final TreatmentProduct[] products;
+        final long[] codes;
+        final double[] prices;
+        final int[] nameTrigramCounts;
+        final int[] dciTrigramCounts;
+        final int[][] namePostings;
+        final int[][] dciPostings;
+
+        private TrigramIndex(TreatmentProduct[] products, long[] codes, double[] prices,
+                             int[] nameTrigramCounts, int[] dciTrigramCounts,
+                             int[][] namePostings, int[][] dciPostings) {
+            this.products = products;
+            this.codes = codes;
+            this.prices = prices;
+            this.nameTrigramCounts = nameTrigramCounts;
+            this.dciTrigramCounts = dciTrigramCounts;
+            this.namePostings = namePostings;
+            this.dciPostings = dciPostings;
+        }
+
+        static TrigramIndex build(List<TreatmentProduct> source) {
+            TreatmentProduct[] products = source.stream()
+                    .filter(product -> product.getCODE() != null)
+                    .sorted((a, b) -> Long.compare(a.getCODE(), b.getCODE()))
+                    .toArray(TreatmentProduct[]::new);
+
+            long[] codes = new long[products.length];
+            double[] prices = new double[products.length];
+            int[][] nameTrigrams = new int[products.length][];
+            int[][] dciTrigrams = new int[products.length][];
+            for (int i = 0; i < products.length; i++) {
+                codes[i] = products[i].getCODE();
+                // A product without a price gets NaN, whose price factor never passes the check
+                Money price = products[i].getPRIXBR();
+                prices[i] = price != null ? price.toDouble() : Double.NaN;
+                nameTrigrams[i] = trigramsOf(products[i].getNOM());
+                dciTrigrams[i] = trigramsOf(products[i].getDCI1());
+            }
+
+            return new TrigramIndex(products, codes, prices,
+                    Arrays.stream(nameTrigrams).mapToInt(t -> t.length).toArray(),
+                    Arrays.stream(dciTrigrams).mapToInt(t -> t.length).toArray(),
+                    postings(nameTrigrams), postings(dciTrigrams));
+        }
+
+        private static int[] trigramsOf(String value) {
+            String normalized = MedicationNameNormalizer.normalizeUncached(value);
+            return normalized == null || normalized.isEmpty() ? NO_POSTINGS : trigrams(normalized);
+        }
+
+        /** Inverts per-product trigram sets into ascending posting lists, one per trigram. */
+        private static int[][] postings(int[][] productTrigrams) {
+            int[] counts = new int[TRIGRAMS];
+            for (int[] trigrams : productTrigrams) {
+                for (int trigram : trigrams) {
+                    counts[trigram]++;
+                }
+            }
+            int[][] postings = new int[TRIGRAMS][];
+            for (int trigram = 0; trigram < TRIGRAMS; trigram++) {
+                postings[trigram] = counts[trigram] == 0 ? NO_POSTINGS : new int[counts[trigram]];
+            }
+            int[] filled = new int[TRIGRAMS];
+            for (int product = 0; product < productTrigrams.length; product++) {
+                for (int trigram : productTrigrams[product]) {
+                    postings[trigram][filled[trigram]++] = product;
+                }
+            }
+            return postings;
+        }
+
+        int[] namePostings(int trigram) {
+            return namePostings[trigram];
+        }
+
+        int[] dciPostings(int trigram) {
+            return dciPostings[trigram];
+        }
+
+        int size() {
+            return products.length;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalizes medication names for comparison purposes.
+ *
+ * The normalization process:
+ * <ul>
+ *   <li>Removes accented characters (NFD decomposition and combining mark removal)</li>
+ *   <li>Converts to uppercase</li>
+ *   <li>Replaces special characters with spaces</li>
+ *   <li>Condenses multiple spaces into single spaces</li>
+ *   <li>Trims whitespace</li>
+ * </ul>
+ *
+ * Every step is folded into a per-character lookup table, so a name is normalized in a
+ * single pass over a char buffer without regular expressions or intermediate strings.
+ * ASCII entries are computed when the class is loaded; other characters are computed
+ * the first time they are seen.
+ *
+ * Pharmacy submissions repeat the same drug names, so results are kept in a bounded
+ * least-recently-used cache. Cache hits, misses, evictions and size are published to
+ * Micrometer as {@code cache.*} meters tagged {@code cache=medicationNames}.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class MedicationNameNormalizer {
+
+    /** Marks characters that are dropped entirely (combining diacritical marks). */
+    private static final char DROP = '\u0000';
+
+    /** Marks characters that expand to several output characters (e.g. ß to SS). */
+    private static final char EXPAND = '\uFFFF';
+
+    /** Marks characters whose folded output has not been computed yet. */
+    private static final char UNKNOWN = '\uFFFE';
+
+    /** Folded output character for every BMP character: A-Z, 0-9, a space, DROP, EXPAND or UNKNOWN. */
+    private static final char[] FOLD = new char[Character.MAX_VALUE + 1];
+
+    /** Output of the characters marked EXPAND in {@link #FOLD}. */
+    private static final Map<Character, String> EXPANSIONS = new ConcurrentHashMap<>();
+
+    static {
+        Arrays.fill(FOLD, UNKNOWN);
+        for (char c = 0; c < 128; c++) {
+            fold(c);
+        }
+    }
+
+    private final Map<String, String> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public MedicationNameNormalizer(@Value("${medication.name.normalizer.cache-size:4096}") int cacheSize,
+                                    MeterRegistry meterRegistry) {
+        this.evictions = Counter.builder("cache.evictions")
+                .tag("cache", "medicationNames")
+                .description("Medication names evicted from the normalizer cache")
+                .register(meterRegistry);
+        this.cache = new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                if (size() > cacheSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", "medicationNames")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", "medicationNames")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, normalizer -> normalizer.cacheSize())
+                .tag("cache", "medicationNames")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Normalizes a medication name, serving repeated names from the cache.
+     *
+     * @param input The medication name to normalize
+     * @return The normalized medication name, or null if input is null
+     */
+    public String normalize(String input) {
+        if (input == null) {
+            return null;
+        }
+        String normalized;
+        synchronized (cache) {
+            normalized = cache.get(input);
+        }
+        if (normalized != null) {
+            hits.increment();
+            return normalized;
+        }
+
+        misses.increment();
+        normalized = normalizeUncached(input);
+        synchronized (cache) {
+            cache.put(input, normalized);
+        }
+        return normalized;
+    }
+
+    /**
+     * Normalizes a medication name without going through the cache.
+     *
+     * Intended for bulk work such as indexing the whole reference table, where caching
+     * every name would only evict the names submitted by pharmacies.
+     *
+     * @param input The medication name to normalize
+     * @return The normalized medication name, or null if input is null
+     */
+    public static String normalizeUncached(String input) {
+        if (input == null) {
+            return null;
+        }
+
+        int length = input.length();
+        char[] buffer = new char[length + 8];
+        int size = 0;
+        boolean pendingSpace = false;
+        // Stays true while the output is identical to the input, so already normalized
+        // names (the common case for reference data) are returned without a copy.
+        boolean unchanged = true;
+
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            char folded = FOLD[c];
+            if (folded == UNKNOWN) {
+                folded = fold(c);
+            }
+            if (folded == DROP) {
+                unchanged = false;
+                continue;
+            }
+
+            String expansion = folded == EXPAND ? EXPANSIONS.get(c) : null;
+            int count = expansion != null ? expansion.length() : 1;
+            for (int k = 0; k < count; k++) {
+                char out = expansion != null ? expansion.charAt(k) : folded;
+                if (out == ' ') {
+                    // Leading, repeated and trailing separators are collapsed or trimmed
+                    pendingSpace = size > 0;
+                    if (c != ' ' || expansion != null) {
+                        unchanged = false;
+                    }
+                    continue;
+                }
+                if (size + 2 > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                if (pendingSpace) {
+                    buffer[size++] = ' ';
+                    pendingSpace = false;
+                }
+                buffer[size++] = out;
+                if (out != c || expansion != null) {
+                    unchanged = false;
+                }
+            }
+        }
+
+        if (unchanged && size == length) {
+            return input;
+        }
+        return new String(buffer, 0, size);
+    }
+
+    private int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Computes and records the lookup table entry of a character. Concurrent callers
+     * compute the same value, so the unsynchronized write is harmless.
+     */
+    private static char fold(char c) {
+        String folded = foldCharacter(c);
+        char entry;
+        if (folded.isEmpty()) {
+            entry = DROP;
+        } else if (folded.length() == 1) {
+            entry = folded.charAt(0);
+        } else {
+            EXPANSIONS.put(c, folded);
+            entry = EXPAND;
+        }
+        FOLD[c] = entry;
+        return entry;
+    }
+
+    /**
+     * Applies the whole normalization to a single character. Only used to compute the lookup table.
+     *
+     * @return The folded characters, where anything other than A-Z and 0-9 is a space
+     */
+    private static String foldCharacter(char c) {
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        StringBuilder unaccented = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char d = decomposed.charAt(i);
+            // Remove accents (the Combining Diacritical Marks block)
+            if (Character.UnicodeBlock.of(d) != Character.UnicodeBlock.COMBINING_DIACRITICAL_MARKS) {
+                unaccented.append(d);
+            }
+        }
+        char[] upperCase = unaccented.toString().toUpperCase(Locale.ROOT).toCharArray();
+        for (int i = 0; i < upperCase.length; i++) {
+            char u = upperCase[i];
+            // Replace special characters with space
+            if (!((u >= 'A' && u <= 'Z') || (u >= '0' && u <= '9'))) {
+                upperCase[i] = ' ';
+            }
+        }
+        return new String(upperCase);
+    }
+}
@@ -0,0 +1,232 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.repository.MedicationReferenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-optimized, in-memory index of the CNOPS reference medication table.
+ *
+ * The whole {@link TreatmentProduct} table is loaded into parallel arrays sorted by
+ * product code, so a lookup is a binary search over a primitive {@code long[]} followed
+ * by an in-memory name and price check. The normalized product name and the base price,
+ * in centimes, are stored alongside each code, which means matching a treatment never touches the database.
+ *
+ * The index is loaded when the application starts and rebuilt whenever the reference
+ * import job completes. A rebuild creates a new snapshot and swaps it in with a single
+ * volatile write, so readers always see either the old or the new table, never a mix.
+ * While a reference import is running, the startup load is left to the end of the import,
+ * so a table that is still being filled is never indexed.
+ *
+ * With {@code medication.reference.index.enabled=false} no snapshot is built, and the
+ * table is only loaded to rebuild the {@link MedicationMatchingEngine} when
+ * {@code medication.reference.fuzzy.enabled=true}; otherwise a rebuild only checks that
+ * the table holds products.
+ *
+ * The time from JVM start until the reference data first holds products is published as
+ * the {@code reference.data.ready.time} gauge.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class MedicationReferenceIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MedicationReferenceIndex.class);
+
+    private final MedicationReferenceRepository medicationReferenceRepository;
+    private final MedicationMatchingEngine medicationMatchingEngine;
+    private final boolean enabled;
+    private final boolean fuzzyEnabled;
+
+    /** The snapshot currently served to readers. Replaced as a whole on every rebuild. */
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /** Number of reference imports currently running. */
+    private volatile int runningImports;
+
+    /** Whether a rebuild found products in the table, whether or not they were indexed. */
+    private volatile boolean loaded;
+
+    /** Milliseconds from JVM start until the index first held products, or -1 until then. */
+    private volatile long readyMillis = -1;
+
+    public MedicationReferenceIndex(MedicationReferenceRepository medicationReferenceRepository,
+                                    MedicationMatchingEngine medicationMatchingEngine,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${medication.reference.index.enabled:true}") boolean enabled,
+                                    @Value("${medication.reference.fuzzy.enabled:false}") boolean fuzzyEnabled) {
+        this.medicationReferenceRepository = medicationReferenceRepository;
+        this.medicationMatchingEngine = medicationMatchingEngine;
+        this.enabled = enabled;
+        this.fuzzyEnabled = fuzzyEnabled;
+        TimeGauge.builder("reference.data.ready.time", this, TimeUnit.MILLISECONDS,
+                        index -> index.readyMillis < 0 ? Double.NaN : index.readyMillis)
+                .description("Time from JVM start until the reference medication data was usable")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the index when the application is ready, unless the reference import
+     * that runs at startup has already built it or is still running.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!isLoaded() && runningImports == 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Records that a reference import has started writing to the table.
+     */
+    public synchronized void importStarted() {
+        runningImports++;
+    }
+
+    /**
+     * Records that a reference import has ended, and rebuilds the index if it completed
+     * or if nothing has been indexed yet.
+     *
+     * @param completed true if the import completed successfully
+     */
+    public void importFinished(boolean completed) {
+        synchronized (this) {
+            runningImports--;
+        }
+        if (completed || !isLoaded()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the reference table from the database and atomically swaps the new
+     * snapshot in place of the current one. The fuzzy {@link MedicationMatchingEngine}
+     * is rebuilt from the same rows. Only what is enabled is loaded and built.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        if (!enabled && !fuzzyEnabled) {
+            markLoaded(medicationReferenceRepository.count() > 0);
+            return;
+        }
+        List<TreatmentProduct> products = medicationReferenceRepository.findAll();
+        if (enabled) {
+            this.snapshot = Snapshot.of(products);
+        }
+        if (fuzzyEnabled) {
+            medicationMatchingEngine.rebuild(products);
+        }
+        markLoaded(enabled ? snapshot.size() > 0 : !products.isEmpty());
+        logger.info("Medication reference {} rebuilt with {} products in {} ms",
+                enabled ? "index" : "matching engine", products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void markLoaded(boolean hasProducts) {
+        loaded = hasProducts;
+        if (readyMillis < 0 && hasProducts) {
+            readyMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        }
+    }
+
+    /**
+     * Finds the reference product matching a treatment.
+     *
+     * A product matches when its code is equal to {@code code}, its normalized name
+     * contains {@code normalizedName} and its base price is equal to {@code price}.
+     *
+     * @param code The product code of the medication
+     * @param normalizedName The medication name, already normalized
+     * @param price The price of the medication
+     * @return The matching {@link TreatmentProduct}, or null if none matches
+     */
+    public TreatmentProduct find(long code, String normalizedName, Money price) {
+        Snapshot current = this.snapshot;
+        int i = Arrays.binarySearch(current.codes, code);
+        if (i < 0 || normalizedName == null || price == null) {
+            return null;
+        }
+        if (current.priceCentimes[i] != price.centimes() || !current.names[i].contains(normalizedName)) {
+            return null;
+        }
+        return current.products[i];
+    }
+
+    /**
+     * @return true when lookups are served from this index
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true once a rebuild found at least one product in the table
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return The number of products in the current snapshot, always 0 when the index is disabled
+     */
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Immutable, array-backed copy of the reference table, sorted by code.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new String[0], new long[0], new TreatmentProduct[0]);
+
+        final long[] codes;
+        final String[] names;
+        /** Base prices in centimes; {@link Long#MIN_VALUE} for a product without a price. */
+        final long[] priceCentimes;
+        final TreatmentProduct[] products;
+
+        private Snapshot(long[] codes, String[] names, long[] priceCentimes, TreatmentProduct[] products) {
+            this.codes = codes;
+            this.names = names;
+            this.priceCentimes = priceCentimes;
+            this.products = products;
+        }
+
+        static Snapshot of(List<TreatmentProduct> products) {
+            TreatmentProduct[] sorted = products.stream()
+                    .filter(product -> product.getCODE() != null)
+                    .sorted(Comparator.comparingLong(TreatmentProduct::getCODE))
+                    .toArray(TreatmentProduct[]::new);
+
+            long[] codes = new long[sorted.length];
+            String[] names = new String[sorted.length];
+            long[] priceCentimes = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                codes[i] = sorted[i].getCODE();
+                String name = MedicationNameNormalizer.normalizeUncached(sorted[i].getNOM());
+                names[i] = name != null ? name : "";
+                Money price = sorted[i].getPRIXBR();
+                priceCentimes[i] = price != null ? price.centimes() : Long.MIN_VALUE;
+            }
+            return new Snapshot(codes, names, priceCentimes, sorted);
+        }
+
+        int size() {
+            return codes.length;
+        }
+    }
+}
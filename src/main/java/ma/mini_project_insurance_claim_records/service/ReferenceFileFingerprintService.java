@@ -0,0 +1,82 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.model.ReferenceFileFingerprint;
+import ma.mini_project_insurance_claim_records.repository.ReferenceFileFingerprintRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Service for fingerprinting the CNOPS reference file.
+ * 
+ * The fingerprint is the SHA-256 of the file content. The incremental refresh stores
+ * it once a file has been applied, and the next startup skips the import when the
+ * file still has the same fingerprint.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class ReferenceFileFingerprintService {
+
+    private final ReferenceFileFingerprintRepository referenceFileFingerprintRepository;
+    private final String fileInput;
+
+    public ReferenceFileFingerprintService(ReferenceFileFingerprintRepository referenceFileFingerprintRepository,
+                                           @Value("${file.input}") String fileInput) {
+        this.referenceFileFingerprintRepository = referenceFileFingerprintRepository;
+        this.fileInput = fileInput;
+    }
+
+    /**
+     * Computes the fingerprint of the configured reference file.
+     *
+     * @return The hex-encoded SHA-256 of the file content
+     */
+    public String fingerprint() {
+        Resource resource = new ClassPathResource(fileInput);
+        try (InputStream input = resource.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + resource.getDescription(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * @return true if the reference file has the fingerprint stored by the last applied refresh
+     */
+    public boolean isUnchanged() {
+        return referenceFileFingerprintRepository.findById(fileInput)
+                .map(stored -> stored.getSha256().equals(fingerprint()))
+                .orElse(false);
+    }
+
+    /**
+     * Stores the fingerprint of a reference file that has just been applied.
+     *
+     * @param sha256 The fingerprint computed before the file was read
+     * @param rowCount The number of products in the file
+     */
+    public void record(String sha256, int rowCount) {
+        referenceFileFingerprintRepository.save(
+                new ReferenceFileFingerprint(fileInput, sha256, rowCount, LocalDateTime.now()));
+    }
+}
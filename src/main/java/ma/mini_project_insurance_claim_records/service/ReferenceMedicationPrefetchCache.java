@@ -0,0 +1,152 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.repository.MedicationReferenceRepository;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Chunk-level prefetch cache for reference medications.
+ *
+ * Used when the in-memory {@link MedicationReferenceIndex} is disabled. Product codes are
+ * registered as dossiers are read; the first lookup after a chunk has been read resolves
+ * every pending code with one {@code WHERE CODE IN (...)} query instead of one query per
+ * treatment. The name and price checks are then done in memory on the prefetched rows.
+ *
+ * Pending and resolved codes are kept per step execution, found through the
+ * {@link StepSynchronizationManager} of the calling thread, so steps running at the same
+ * time (partitions, inbox files) never see or clear each other's codes. Resolved rows are
+ * kept until {@link #clear(Long)} is called at the end of the step, so codes repeated
+ * across chunks are not queried again. Codes with no reference product are remembered as
+ * missing. A lookup made outside of a step queries its single code.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class ReferenceMedicationPrefetchCache {
+
+    private final MedicationReferenceRepository medicationReferenceRepository;
+    private final boolean enabled;
+
+    /** Codes of every running step, by step execution id. */
+    private final Map<Long, StepCodes> stepCodes = new ConcurrentHashMap<>();
+
+    public ReferenceMedicationPrefetchCache(MedicationReferenceRepository medicationReferenceRepository,
+                                            @Value("${medication.reference.prefetch.enabled:true}") boolean prefetchEnabled,
+                                            @Value("${medication.reference.index.enabled:true}") boolean indexEnabled) {
+        this.medicationReferenceRepository = medicationReferenceRepository;
+        this.enabled = prefetchEnabled && !indexEnabled;
+    }
+
+    /**
+     * @return true when lookups should go through this cache
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registers a product code to be resolved with the next batch query of the current step.
+     *
+     * @param code The product code read from a treatment
+     */
+    public void register(Long code) {
+        Long stepExecutionId = currentStepExecutionId();
+        if (enabled && code != null && stepExecutionId != null) {
+            stepCodes.computeIfAbsent(stepExecutionId, id -> new StepCodes()).register(code);
+        }
+    }
+
+    /**
+     * Returns the reference product for a code, resolving all pending codes of the current
+     * step in one query if the code has not been resolved yet.
+     *
+     * @param code The product code to look up
+     * @return The {@link TreatmentProduct} with this code, or null if there is none
+     */
+    public TreatmentProduct get(Long code) {
+        Long stepExecutionId = currentStepExecutionId();
+        StepCodes codes = stepExecutionId != null
+                ? stepCodes.computeIfAbsent(stepExecutionId, id -> new StepCodes())
+                : new StepCodes();
+        return codes.get(code, medicationReferenceRepository).orElse(null);
+    }
+
+    /**
+     * Drops every resolved and pending code of a step, typically when it ends.
+     *
+     * @param stepExecutionId The id of the step execution
+     */
+    public void clear(Long stepExecutionId) {
+        if (stepExecutionId != null) {
+            stepCodes.remove(stepExecutionId);
+        }
+    }
+
+    private static Long currentStepExecutionId() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return context != null ? context.getStepExecution().getId() : null;
+    }
+
+    /**
+     * Pending and resolved codes of one step execution, shared by its chunk threads.
+     */
+    private static final class StepCodes {
+
+        /** Codes read but not yet resolved against the database. */
+        private final Queue<Long> pendingCodes = new ConcurrentLinkedQueue<>();
+
+        /** Resolved codes; an empty value means the code has no reference product. */
+        private final Map<Long, Optional<TreatmentProduct>> resolved = new ConcurrentHashMap<>();
+
+        void register(Long code) {
+            if (!resolved.containsKey(code)) {
+                pendingCodes.add(code);
+            }
+        }
+
+        Optional<TreatmentProduct> get(Long code, MedicationReferenceRepository repository) {
+            Optional<TreatmentProduct> product = resolved.get(code);
+            return product != null ? product : resolvePending(code, repository);
+        }
+
+        /**
+         * Resolves the requested code together with every pending code in one query.
+         */
+        private synchronized Optional<TreatmentProduct> resolvePending(Long code, MedicationReferenceRepository repository) {
+            Optional<TreatmentProduct> alreadyResolved = resolved.get(code);
+            if (alreadyResolved != null) {
+                return alreadyResolved;
+            }
+
+            Set<Long> codes = new HashSet<>();
+            codes.add(code);
+            Long pending;
+            while ((pending = pendingCodes.poll()) != null) {
+                codes.add(pending);
+            }
+            codes.removeAll(resolved.keySet());
+            codes.add(code);
+
+            for (TreatmentProduct product : repository.findByCODEIn(codes)) {
+                resolved.put(product.getCODE(), Optional.of(product));
+            }
+            for (Long missing : codes) {
+                resolved.putIfAbsent(missing, Optional.empty());
+            }
+            return resolved.get(code);
+        }
+    }
+}
@@ -1,70 +1,149 @@
 package ma.mini_project_insurance_claim_records.service;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
 import ma.mini_project_insurance_claim_records.repository.MedicationReferenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for retrieving reference medication information from the database.
  * 
  * This service handles the lookup of reference medications based on various criteria
  * (code, name, price). It performs normalization on medication names to improve matching
- * accuracy by removing accents and converting to uppercase.
+ * accuracy by removing accents and converting to uppercase (see {@link MedicationNameNormalizer}).
+ * 
+ * Lookups are served from the in-memory {@link MedicationReferenceIndex} by default.
+ * Setting {@code medication.reference.index.enabled=false} falls back to querying
+ * the {@link ReferenceMedicationPrefetchCache}, which resolves a whole chunk of codes with
+ * one query, or to the {@link MedicationReferenceRepository} for every treatment when
+ * {@code medication.reference.prefetch.enabled=false} as well.
+ * 
+ * When no exact match is found and {@code medication.reference.fuzzy.enabled=true}, the
+ * {@link MedicationMatchingEngine} looks for the best fuzzy candidate. A fuzzy match is
+ * reimbursed against another product's price and rate, so it is off by default, and every
+ * one is counted in {@code medication.reference.fuzzy.matches} and logged with the submitted
+ * and matched codes for auditing. Every lookup is timed in the
+ * {@code medication.reference.lookup} timer, tagged with the path that served it.
  * 
  * @author Yeasthetic
  * @version 1.0
  * @since 1.0
  */
 @Service
-@AllArgsConstructor
 public class ReferenceMedicationService {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceMedicationService.class);
+
     private final MedicationReferenceRepository medicationReferenceRepository;
+    private final MedicationReferenceIndex medicationReferenceIndex;
+    private final ReferenceMedicationPrefetchCache referenceMedicationPrefetchCache;
+    private final MedicationNameNormalizer medicationNameNormalizer;
+    private final MedicationMatchingEngine medicationMatchingEngine;
+    private final boolean indexEnabled;
+    private final boolean fuzzyEnabled;
+    private final Timer indexTimer;
+    private final Timer prefetchTimer;
+    private final Timer repositoryTimer;
+    private final Timer fuzzyTimer;
+    private final Counter fuzzyMatchCounter;
+
+    public ReferenceMedicationService(MedicationReferenceRepository medicationReferenceRepository,
+                                      MedicationReferenceIndex medicationReferenceIndex,
+                                      ReferenceMedicationPrefetchCache referenceMedicationPrefetchCache,
+                                      MedicationNameNormalizer medicationNameNormalizer,
+                                      MedicationMatchingEngine medicationMatchingEngine,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${medication.reference.index.enabled:true}") boolean indexEnabled,
+                                      @Value("${medication.reference.fuzzy.enabled:false}") boolean fuzzyEnabled) {
+        this.medicationReferenceRepository = medicationReferenceRepository;
+        this.medicationReferenceIndex = medicationReferenceIndex;
+        this.referenceMedicationPrefetchCache = referenceMedicationPrefetchCache;
+        this.medicationNameNormalizer = medicationNameNormalizer;
+        this.medicationMatchingEngine = medicationMatchingEngine;
+        this.indexEnabled = indexEnabled;
+        this.fuzzyEnabled = fuzzyEnabled;
+        this.indexTimer = lookupTimer(meterRegistry, "index");
+        this.prefetchTimer = lookupTimer(meterRegistry, "prefetch");
+        this.repositoryTimer = lookupTimer(meterRegistry, "repository");
+        this.fuzzyTimer = lookupTimer(meterRegistry, "fuzzy");
+        this.fuzzyMatchCounter = Counter.builder("medication.reference.fuzzy.matches")
+                .description("Treatments matched to a reference medication by fuzzy matching")
+                .register(meterRegistry);
+    }
+
+    private static Timer lookupTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("medication.reference.lookup")
+                .description("Latency of reference medication lookups")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
 
     /**
      * Retrieves reference medication details based on medication identifiers.
      * 
      * Searches for a medication in the reference database using the code, name,
      * and price. The medication name is normalized before searching to improve
-     * matching accuracy.
+     * matching accuracy. If nothing matches exactly and fuzzy matching is enabled, the
+     * best fuzzy candidate is returned.
      * 
      * @param medicationCODE The product code of the medication
      * @param medicationName The name of the medication to search for
      * @param medicationPrix The price of the medication
      * @return The {@link TreatmentProduct} entity if found, null otherwise
      */
-    public TreatmentProduct getReferenceMedication(Long medicationCODE, String medicationName, double medicationPrix) {
-        String normalizedMedicationName = normalizeMedicationName(medicationName);
-        return medicationReferenceRepository.findByCODEAndNOMContainingAndPRIXBR(medicationCODE, normalizedMedicationName, medicationPrix);
+    public TreatmentProduct getReferenceMedication(Long medicationCODE, String medicationName, Money medicationPrix) {
+        long start = System.nanoTime();
+        String normalizedMedicationName = medicationNameNormalizer.normalize(medicationName);
+        TreatmentProduct product;
+        Timer timer;
+        if (indexEnabled && medicationCODE != null) {
+            product = medicationReferenceIndex.find(medicationCODE, normalizedMedicationName, medicationPrix);
+            timer = indexTimer;
+        } else if (referenceMedicationPrefetchCache.isEnabled() && medicationCODE != null) {
+            TreatmentProduct candidate = referenceMedicationPrefetchCache.get(medicationCODE);
+            product = matches(candidate, normalizedMedicationName, medicationPrix) ? candidate : null;
+            timer = prefetchTimer;
+        } else {
+            product = medicationReferenceRepository.findByCODEAndNOMContainingAndPRIXBR(medicationCODE, normalizedMedicationName, medicationPrix);
+            timer = repositoryTimer;
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (product == null && fuzzyEnabled) {
+            start = System.nanoTime();
+            product = medicationMatchingEngine.findBest(medicationCODE, normalizedMedicationName, medicationPrix);
+            fuzzyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (product != null) {
+                fuzzyMatchCounter.increment();
+                logger.info("Fuzzy match: submitted code {} name '{}' price {} matched reference code {} name '{}' price {}",
+                        medicationCODE, medicationName, medicationPrix,
+                        product.getCODE(), product.getNOM(), product.getPRIXBR());
+            }
+        }
+        return product;
     }
 
     /**
-     * Normalizes a medication name for comparison purposes.
-     * 
-     * The normalization process:
-     * <ul>
-     *   <li>Removes accented characters (NFD decomposition and combining mark removal)</li>
-     *   <li>Converts to uppercase</li>
-     *   <li>Replaces special characters with spaces</li>
-     *   <li>Condenses multiple spaces into single spaces</li>
-     *   <li>Trims whitespace</li>
-     * </ul>
+     * Applies the name-contains and price checks of the repository query in memory.
      * 
-     * @param input The medication name to normalize
-     * @return The normalized medication name, or null if input is null
+     * @param product The candidate reference product, may be null
+     * @param normalizedMedicationName The normalized medication name
+     * @param medicationPrix The price of the medication
+     * @return true if the product's name contains the given name and its base price is equal to the given price
      */
-    private String normalizeMedicationName(String input) {
-        if (input == null) {
-            return null;
-        }
-
-        return Normalizer.normalize(input, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "") // Remove accents
-                .toUpperCase() // Convert to uppercase
-                .replaceAll("[^A-Z0-9]", " ") // Replace special characters with space
-                .replaceAll("\\s+", " ") // Replace multiple spaces with single space
-                .trim();
+    private static boolean matches(TreatmentProduct product, String normalizedMedicationName, Money medicationPrix) {
+        return product != null
+                && normalizedMedicationName != null
+                && product.getNOM() != null
+                && medicationPrix != null
+                && medicationPrix.equals(product.getPRIXBR())
+                && product.getNOM().contains(normalizedMedicationName);
     }
 }
@@ -0,0 +1,247 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.dto.ReimbursementRollupDTO;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Maintains and serves the reimbursement rollups: running counts and totals per
+ * affiliation number, per submission day and per medication code.
+ *
+ * Every chunk written by {@link DossierService} adds the totals of the dossiers it
+ * inserted, one {@code INSERT ... ON CONFLICT DO UPDATE} per rollup table, in the chunk
+ * transaction itself: a rolled back chunk leaves no trace in the rollups, and a committed
+ * one is visible in both at once. Keys are written in ascending order so concurrent
+ * chunks lock shared rows (typically the current day) in the same order.
+ *
+ * Reading a rollup is a primary key lookup whatever the size of the dossier table.
+ * {@link #rebuild()} recomputes every rollup from the dossier and treatment tables.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class ReimbursementRollupService {
+
+    private static final String UPSERT_AFFILIATIONS = """
+            INSERT INTO affiliation_reimbursement_rollup (affiliation_number, dossier_count, total_cost, reimbursed_amount)
+            SELECT * FROM unnest(?::varchar[], ?::bigint[], ?::numeric[], ?::numeric[])
+            ON CONFLICT (affiliation_number) DO UPDATE SET
+                dossier_count = affiliation_reimbursement_rollup.dossier_count + EXCLUDED.dossier_count,
+                total_cost = affiliation_reimbursement_rollup.total_cost + EXCLUDED.total_cost,
+                reimbursed_amount = affiliation_reimbursement_rollup.reimbursed_amount + EXCLUDED.reimbursed_amount
+            """;
+
+    private static final String UPSERT_DAYS = """
+            INSERT INTO daily_reimbursement_rollup (submission_day, dossier_count, total_cost, reimbursed_amount)
+            SELECT * FROM unnest(?::date[], ?::bigint[], ?::numeric[], ?::numeric[])
+            ON CONFLICT (submission_day) DO UPDATE SET
+                dossier_count = daily_reimbursement_rollup.dossier_count + EXCLUDED.dossier_count,
+                total_cost = daily_reimbursement_rollup.total_cost + EXCLUDED.total_cost,
+                reimbursed_amount = daily_reimbursement_rollup.reimbursed_amount + EXCLUDED.reimbursed_amount
+            """;
+
+    private static final String UPSERT_MEDICATIONS = """
+            INSERT INTO medication_reimbursement_rollup (code, treatment_count, total_price)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::numeric[])
+            ON CONFLICT (code) DO UPDATE SET
+                treatment_count = medication_reimbursement_rollup.treatment_count + EXCLUDED.treatment_count,
+                total_price = medication_reimbursement_rollup.total_price + EXCLUDED.total_price
+            """;
+
+    // Blocks chunk writes, but not readers, until the rebuild commits, so no chunk is
+    // counted twice or missed
+    private static final String LOCK_SOURCES = "LOCK TABLE dossier, treatment IN SHARE MODE";
+
+    private static final List<String> REBUILD = List.of(
+            "DELETE FROM affiliation_reimbursement_rollup",
+            """
+            INSERT INTO affiliation_reimbursement_rollup (affiliation_number, dossier_count, total_cost, reimbursed_amount)
+            SELECT affiliation_number, count(*), coalesce(sum(total_cost), 0), coalesce(sum(reimbursed_amount), 0)
+            FROM dossier GROUP BY affiliation_number
+            """,
+            "DELETE FROM daily_reimbursement_rollup",
+            """
+            INSERT INTO daily_reimbursement_rollup (submission_day, dossier_count, total_cost, reimbursed_amount)
+            SELECT dossier_submission_date, count(*), coalesce(sum(total_cost), 0), coalesce(sum(reimbursed_amount), 0)
+            FROM dossier WHERE dossier_submission_date IS NOT NULL GROUP BY dossier_submission_date
+            """,
+            "DELETE FROM medication_reimbursement_rollup",
+            """
+            INSERT INTO medication_reimbursement_rollup (code, treatment_count, total_price)
+            SELECT code_barre, count(*), coalesce(sum(prix_medicament), 0)
+            FROM treatment WHERE code_barre IS NOT NULL GROUP BY code_barre
+            """);
+
+    private static final String SELECT_AFFILIATION =
+            "SELECT dossier_count, total_cost, reimbursed_amount FROM affiliation_reimbursement_rollup WHERE affiliation_number = ?";
+
+    private static final String SELECT_DAY =
+            "SELECT dossier_count, total_cost, reimbursed_amount FROM daily_reimbursement_rollup WHERE submission_day = ?";
+
+    private static final String SELECT_MEDICATION =
+            "SELECT treatment_count, total_price, NULL::numeric FROM medication_reimbursement_rollup WHERE code = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public ReimbursementRollupService(JdbcTemplate jdbcTemplate,
+                                      @Value("${reimbursement.rollup.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Adds newly inserted dossiers and their treatments to the rollups, in the current transaction.
+     *
+     * @param inserted The dossiers just inserted, each one once
+     */
+    public void record(List<? extends Dossier> inserted) {
+        if (!enabled || inserted.isEmpty()) {
+            return;
+        }
+        ChunkTotals totals = aggregate(inserted);
+        upsert(UPSERT_AFFILIATIONS, "varchar", totals.byAffiliation(), true);
+        if (!totals.byDay().isEmpty()) {
+            upsert(UPSERT_DAYS, "varchar", totals.byDay(), true);
+        }
+        if (!totals.byMedication().isEmpty()) {
+            upsert(UPSERT_MEDICATIONS, "int8", totals.byMedication(), false);
+        }
+    }
+
+    /**
+     * Recomputes every rollup from the dossier and treatment tables, in the current transaction.
+     *
+     * @return The number of rollup rows written
+     */
+    public int rebuild() {
+        jdbcTemplate.execute(LOCK_SOURCES);
+        int rows = 0;
+        for (int i = 0; i < REBUILD.size(); i += 2) {
+            jdbcTemplate.update(REBUILD.get(i));
+            rows += jdbcTemplate.update(REBUILD.get(i + 1));
+        }
+        return rows;
+    }
+
+    /**
+     * @return The totals of an affiliation number, or empty if none of its dossiers is stored
+     */
+    public Optional<ReimbursementRollupDTO> findByAffiliation(String affiliationNumber) {
+        return find(SELECT_AFFILIATION, "affiliation", affiliationNumber, affiliationNumber);
+    }
+
+    /**
+     * @return The totals of a submission day, or empty if no dossier was submitted that day
+     */
+    public Optional<ReimbursementRollupDTO> findByDay(LocalDate day) {
+        return find(SELECT_DAY, "day", day.toString(), Date.valueOf(day));
+    }
+
+    /**
+     * @return The totals of a medication code, or empty if no stored treatment has it
+     */
+    public Optional<ReimbursementRollupDTO> findByMedication(long code) {
+        return find(SELECT_MEDICATION, "medication", Long.toString(code), code);
+    }
+
+    private Optional<ReimbursementRollupDTO> find(String sql, String dimension, String key, Object id) {
+        return jdbcTemplate.query(sql, (resultSet, row) -> new ReimbursementRollupDTO(
+                        dimension, key, resultSet.getLong(1), resultSet.getBigDecimal(2), resultSet.getBigDecimal(3)), id)
+                .stream()
+                .findFirst();
+    }
+
+    private <K> void upsert(String sql, String keyType, SortedMap<K, Totals> totals, boolean withReimbursed) {
+        int size = totals.size();
+        Object[] keys = new Object[size];
+        Long[] counts = new Long[size];
+        BigDecimal[] amounts = new BigDecimal[size];
+        BigDecimal[] reimbursed = new BigDecimal[size];
+        int i = 0;
+        for (Map.Entry<K, Totals> entry : totals.entrySet()) {
+            K key = entry.getKey();
+            keys[i] = key instanceof LocalDate ? key.toString() : key;
+            counts[i] = entry.getValue().count;
+            amounts[i] = entry.getValue().amount.toBigDecimal();
+            reimbursed[i] = entry.getValue().reimbursed.toBigDecimal();
+            i++;
+        }
+
+        jdbcTemplate.update(sql, statement -> {
+            Connection connection = statement.getConnection();
+            statement.setArray(1, connection.createArrayOf(keyType, keys));
+            statement.setArray(2, connection.createArrayOf("int8", counts));
+            statement.setArray(3, connection.createArrayOf("numeric", amounts));
+            if (withReimbursed) {
+                statement.setArray(4, connection.createArrayOf("numeric", reimbursed));
+            }
+        });
+    }
+
+    /**
+     * Sums a chunk of dossiers per affiliation number, submission day and medication code,
+     * treating missing amounts as zero, as the rebuild does.
+     */
+    static ChunkTotals aggregate(List<? extends Dossier> dossiers) {
+        ChunkTotals totals = new ChunkTotals(new TreeMap<>(), new TreeMap<>(), new TreeMap<>());
+        for (Dossier dossier : dossiers) {
+            totals.byAffiliation().computeIfAbsent(dossier.getAffiliationNumber(), key -> new Totals())
+                    .add(dossier.getTotalCost(), dossier.getReimbursedAmount());
+            if (dossier.getDossierSubmissionDate() != null) {
+                totals.byDay().computeIfAbsent(dossier.getDossierSubmissionDate(), key -> new Totals())
+                        .add(dossier.getTotalCost(), dossier.getReimbursedAmount());
+            }
+            if (dossier.getTreatments() == null) {
+                continue;
+            }
+            for (Treatment treatment : dossier.getTreatments()) {
+                if (treatment.getCodeBarre() != null) {
+                    totals.byMedication().computeIfAbsent(treatment.getCodeBarre(), key -> new Totals())
+                            .add(treatment.getPrixMedicament(), null);
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Totals of one chunk, sorted by key.
+     */
+    record ChunkTotals(SortedMap<String, Totals> byAffiliation,
+                       SortedMap<LocalDate, Totals> byDay,
+                       SortedMap<Long, Totals> byMedication) {
+    }
+
+    static final class Totals {
+        long count;
+        Money amount = Money.ZERO;
+        Money reimbursed = Money.ZERO;
+
+        void add(Money amount, Money reimbursed) {
+            count++;
+            if (amount != null) {
+                this.amount = this.amount.plus(amount);
+            }
+            if (reimbursed != null) {
+                this.reimbursed = this.reimbursed.plus(reimbursed);
+            }
+        }
+    }
+}
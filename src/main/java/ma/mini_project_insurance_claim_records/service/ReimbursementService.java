@@ -1,6 +1,7 @@
 package ma.mini_project_insurance_claim_records.service;
 
 import lombok.AllArgsConstructor;
+import ma.mini_project_insurance_claim_records.model.Money;
 import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
 import org.springframework.stereotype.Service;
 
@@ -24,28 +25,43 @@ public class ReimbursementService {
      * Calculates the reimbursement amount for a single treatment product.
      * 
      * The reimbursement is computed as:
-     * {@code basePrice * (reimbursementRate / 100)}
+     * {@code basePrice * reimbursementRate}, rounded half up to the centime
      * 
      * @param treatmentProduct The treatment product containing price and reimbursement rate information
      * @return The calculated reimbursement amount for this product
      */
-    public double calculateReimbursement(TreatmentProduct treatmentProduct) {
-        double basePrice = treatmentProduct.getPRIXBR();
-        double reimbursementRate = treatmentProduct.getTAUXREMBOURSEMENT();
+    public Money calculateReimbursement(TreatmentProduct treatmentProduct) {
+        return Money.ofCentimes(calculateReimbursementCentimes(treatmentProduct));
+    }
 
-        return basePrice * reimbursementRate;
+    /**
+     * Calculates the reimbursement amount for a single treatment product in centimes.
+     * 
+     * Same result as {@link #calculateReimbursement(TreatmentProduct)}, without creating a
+     * {@link Money}, so amounts can be accumulated in a {@code long} by hot loops.
+     * 
+     * @param treatmentProduct The treatment product containing price and reimbursement rate information
+     * @return The calculated reimbursement amount for this product, in centimes
+     */
+    public long calculateReimbursementCentimes(TreatmentProduct treatmentProduct) {
+        return Money.multiplyCentimes(treatmentProduct.getPRIXBR().centimes(),
+                Money.basisPoints(treatmentProduct.getTAUXREMBOURSEMENT()));
     }
 
     /**
      * Calculates the total reimbursement amount from a list of individual treatment reimbursements.
      * 
      * Sums all reimbursement amounts for all treatments in a dossier to provide
-     * the total amount the insurance will cover.
+     * the total amount the insurance will cover. The sum is exact.
      * 
      * @param reimbursedTreatments A list of individual reimbursement amounts
      * @return The sum of all reimbursement amounts
      */
-    public double totalReimbursement(List<Double> reimbursedTreatments) {
-        return reimbursedTreatments.stream().mapToDouble(Double::doubleValue).sum();
+    public Money totalReimbursement(List<Money> reimbursedTreatments) {
+        long totalCentimes = 0;
+        for (Money reimbursedTreatment : reimbursedTreatments) {
+            totalCentimes = Math.addExact(totalCentimes, reimbursedTreatment.centimes());
+        }
+        return Money.ofCentimes(totalCentimes);
     }
 }
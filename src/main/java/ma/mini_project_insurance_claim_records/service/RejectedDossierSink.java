@@ -0,0 +1,95 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.mini_project_insurance_claim_records.model.RejectedDossier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the dossiers rejected by the dossier step and stores them as {@link RejectedDossier} rows.
+ * 
+ * Rejections are buffered in memory by whichever thread processes the dossier and
+ * written with one batched insert by {@link #flush()}, which the step calls after every
+ * chunk. The insert always runs in a new transaction: a rejection is recorded even if the
+ * chunk that found it rolls back, and flushing from a transaction synchronization
+ * callback, where the finished chunk transaction is still bound, does not join it.
+ * 
+ * Rejections are counted in the {@code dossier.rejected} counter, tagged with the stage.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class RejectedDossierSink {
+
+    private static final String INSERT = """
+            INSERT INTO rejected_dossier (affiliation_number, stage, reasons, rejected_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final int MAX_REASONS_LENGTH = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Queue<RejectedDossier> pending = new ConcurrentLinkedQueue<>();
+
+    public RejectedDossierSink(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records a rejected dossier, to be written at the next {@link #flush()}.
+     * 
+     * @param affiliationNumber The affiliation number of the dossier, may be null
+     * @param stage The stage that rejected the dossier
+     * @param reasons Every reason for the rejection
+     */
+    public void reject(String affiliationNumber, String stage, String reasons) {
+        if (reasons != null && reasons.length() > MAX_REASONS_LENGTH) {
+            reasons = reasons.substring(0, MAX_REASONS_LENGTH);
+        }
+        pending.add(new RejectedDossier(null, affiliationNumber, stage, reasons, LocalDateTime.now()));
+        meterRegistry.counter("dossier.rejected", "stage", stage).increment();
+    }
+
+    /**
+     * Writes every pending rejection with one batched insert, in a new transaction.
+     * 
+     * @return The number of rejections written
+     */
+    public int flush() {
+        List<RejectedDossier> rejections = new ArrayList<>();
+        RejectedDossier rejection;
+        while ((rejection = pending.poll()) != null) {
+            rejections.add(rejection);
+        }
+        if (rejections.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT, rejections, rejections.size(), (statement, rejected) -> {
+                    statement.setString(1, rejected.getAffiliationNumber());
+                    statement.setString(2, rejected.getStage());
+                    statement.setString(3, rejected.getReasons());
+                    statement.setTimestamp(4, Timestamp.valueOf(rejected.getRejectedAt()));
+                }));
+        return rejections.size();
+    }
+}
@@ -0,0 +1,90 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DossierSource} fed incrementally by a producer, through a bounded buffer.
+ * 
+ * The producer (typically a parser reading an upload) blocks when the buffer is full,
+ * so no more than {@code capacity} dossiers are held in memory whatever the size of the
+ * payload, and the batch reader can start as soon as the first dossier arrives.
+ * 
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public class StreamingDossierSource implements DossierSource {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final BlockingQueue<DossierDTO> buffer;
+    private volatile boolean completed;
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    public StreamingDossierSource(int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Adds a dossier, waiting while the buffer is full.
+     * 
+     * @param dossier The dossier to hand over to the reader
+     * @return false if the consumer has been closed and the dossier was discarded
+     * @throws InterruptedException if the producer is interrupted while waiting
+     */
+    public boolean put(DossierDTO dossier) throws InterruptedException {
+        while (!buffer.offer(dossier, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Signals that the producer has delivered every dossier.
+     */
+    public void complete() {
+        completed = true;
+    }
+
+    /**
+     * Signals that the producer failed; the reader rethrows the failure once the
+     * dossiers delivered so far have been consumed.
+     * 
+     * @param failure The cause of the failure
+     */
+    public void fail(Exception failure) {
+        this.failure = failure;
+    }
+
+    @Override
+    public DossierDTO next() throws Exception {
+        while (true) {
+            DossierDTO dossier = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (dossier != null) {
+                return dossier;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (completed && buffer.isEmpty()) {
+                return null;
+            }
+            if (closed) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        buffer.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package ma.mini_project_insurance_claim_records.validation;
+
+import ma.mini_project_insurance_claim_records.model.Dossier;
+
+import java.util.function.Predicate;
+
+/**
+ * One validation rule of the {@link DossierValidationEngine}.
+ *
+ * @param code The rule name, as listed in {@code dossier.validation.rules}
+ * @param message The description of a violation of this rule
+ * @param check Returns true when the dossier satisfies the rule; must not throw
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public record DossierRule(String code, String message, Predicate<Dossier> check) {
+
+    /**
+     * @param dossier The dossier to check
+     * @return true if the dossier satisfies this rule
+     */
+    public boolean test(Dossier dossier) {
+        return check.test(dossier);
+    }
+}
@@ -0,0 +1,76 @@
+package ma.mini_project_insurance_claim_records.validation;
+
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Catalog of the {@link DossierRule}s that can be listed in {@code dossier.validation.rules}.
+ *
+ * <ul>
+ *   <li>{@code AFFILIATION_NUMBER}: affiliation number is not empty</li>
+ *   <li>{@code INSURED_NAME}: insured person name is not empty</li>
+ *   <li>{@code BENEFICIARY_NAME}: beneficiary name is not empty</li>
+ *   <li>{@code SUBMISSION_DATE}: dossier submission date is present and not in the future</li>
+ *   <li>{@code CONSULTATION_PRICE}: consultation price is positive</li>
+ *   <li>{@code TOTAL_COST}: total cost is positive</li>
+ *   <li>{@code TREATMENTS}: treatments list is not empty</li>
+ *   <li>{@code MAX_TREATMENTS}: no more than {@code dossier.validation.max-treatments} treatments</li>
+ * </ul>
+ * The first seven are the checks historically done by the dossier step, and the default.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public final class DossierRules {
+
+    /** The rules applied when {@code dossier.validation.rules} is not set. */
+    public static final String DEFAULT_RULES =
+            "AFFILIATION_NUMBER,INSURED_NAME,BENEFICIARY_NAME,SUBMISSION_DATE,CONSULTATION_PRICE,TOTAL_COST,TREATMENTS";
+
+    private DossierRules() {
+    }
+
+    /**
+     * Creates a rule from its name.
+     *
+     * @param name The rule name, case-insensitive
+     * @param maxTreatments The bound of the {@code MAX_TREATMENTS} rule
+     * @return The rule
+     * @throws IllegalArgumentException if no rule has this name
+     */
+    public static DossierRule named(String name, int maxTreatments) {
+        String code = name.trim().toUpperCase(Locale.ROOT);
+        return switch (code) {
+            case "AFFILIATION_NUMBER" -> new DossierRule(code, "Affiliation number is missing.",
+                    dossier -> isPresent(dossier.getAffiliationNumber()));
+            case "INSURED_NAME" -> new DossierRule(code, "Insured name is missing.",
+                    dossier -> isPresent(dossier.getInsuredName()));
+            case "BENEFICIARY_NAME" -> new DossierRule(code, "Beneficiary name is missing.",
+                    dossier -> isPresent(dossier.getBeneficiaryName()));
+            case "SUBMISSION_DATE" -> new DossierRule(code, "Invalid submission date.",
+                    dossier -> dossier.getDossierSubmissionDate() != null
+                            && !dossier.getDossierSubmissionDate().isAfter(LocalDate.now()));
+            case "CONSULTATION_PRICE" -> new DossierRule(code, "Consultation price must be positive.",
+                    dossier -> isPositive(dossier.getPrixConsultation()));
+            case "TOTAL_COST" -> new DossierRule(code, "Total cost must be positive.",
+                    dossier -> isPositive(dossier.getTotalCost()));
+            case "TREATMENTS" -> new DossierRule(code, "Dossier must contain at least one treatment.",
+                    dossier -> dossier.getTreatments() != null && !dossier.getTreatments().isEmpty());
+            case "MAX_TREATMENTS" -> new DossierRule(code, "Dossier has more than " + maxTreatments + " treatments.",
+                    dossier -> dossier.getTreatments() == null || dossier.getTreatments().size() <= maxTreatments);
+            default -> throw new IllegalArgumentException("Unknown dossier validation rule: " + name);
+        };
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static boolean isPositive(Money amount) {
+        return amount != null && amount.isPositive();
+    }
+}
@@ -0,0 +1,64 @@
+package ma.mini_project_insurance_claim_records.validation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rule-based dossier validation that reports every violation without throwing.
+ *
+ * The rules listed in {@code dossier.validation.rules} are compiled once, at startup,
+ * into an array of {@link DossierRule}s (see {@link DossierRules} for the catalog). An
+ * evaluation runs every rule, in order, and collects the failed ones in the calling
+ * thread's {@link ValidationResult}, so no exception, stack trace or collection is
+ * created, and a dossier with several problems reports all of them.
+ *
+ * Violations are counted in the {@code dossier.validation.violations} counter, tagged
+ * with the rule code.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class DossierValidationEngine {
+
+    private final DossierRule[] rules;
+    private final Counter[] violationCounters;
+    private final ThreadLocal<ValidationResult> results = ThreadLocal.withInitial(ValidationResult::new);
+
+    public DossierValidationEngine(@Value("${dossier.validation.rules:" + DossierRules.DEFAULT_RULES + "}") String[] ruleNames,
+                                   @Value("${dossier.validation.max-treatments:50}") int maxTreatments,
+                                   MeterRegistry meterRegistry) {
+        this.rules = new DossierRule[ruleNames.length];
+        this.violationCounters = new Counter[ruleNames.length];
+        for (int i = 0; i < ruleNames.length; i++) {
+            rules[i] = DossierRules.named(ruleNames[i], maxTreatments);
+            violationCounters[i] = Counter.builder("dossier.validation.violations")
+                    .description("Dossiers violating each validation rule")
+                    .tag("rule", rules[i].code())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Evaluates every rule against a dossier.
+     *
+     * @param dossier The dossier to validate
+     * @return This thread's result, holding every violated rule; only valid until the
+     *         next call on the same thread
+     */
+    public ValidationResult validate(Dossier dossier) {
+        ValidationResult result = results.get();
+        result.reset();
+        for (int i = 0; i < rules.length; i++) {
+            if (!rules[i].test(dossier)) {
+                result.add(rules[i]);
+                violationCounters[i].increment();
+            }
+        }
+        return result;
+    }
+}
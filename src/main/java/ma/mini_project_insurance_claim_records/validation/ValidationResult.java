@@ -0,0 +1,76 @@
+package ma.mini_project_insurance_claim_records.validation;
+
+import java.util.Arrays;
+
+/**
+ * The violations found by one evaluation of the {@link DossierValidationEngine}.
+ *
+ * Results are reused: each thread gets one instance, cleared at every evaluation, so
+ * validating a dossier allocates nothing. A result is only valid until the next
+ * validation on the same thread; {@link #describe()} copies it out.
+ *
+ * @author Yeasthetic
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ValidationResult {
+
+    private DossierRule[] violations = new DossierRule[8];
+    private int size;
+
+    void reset() {
+        Arrays.fill(violations, 0, size, null);
+        size = 0;
+    }
+
+    void add(DossierRule rule) {
+        if (size == violations.length) {
+            violations = Arrays.copyOf(violations, size * 2);
+        }
+        violations[size++] = rule;
+    }
+
+    /**
+     * @return true if no rule was violated
+     */
+    public boolean isValid() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of violated rules
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of the violation, below {@link #size()}
+     * @return The violated rule
+     */
+    public DossierRule get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return violations[index];
+    }
+
+    /**
+     * @return Every violation as {@code CODE: message}, separated by {@code "; "}
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                description.append("; ");
+            }
+            description.append(violations[i].code()).append(": ").append(violations[i].message());
+        }
+        return description.toString();
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "valid" : describe();
+    }
+}
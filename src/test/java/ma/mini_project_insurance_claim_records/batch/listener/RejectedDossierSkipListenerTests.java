@@ -0,0 +1,71 @@
+package ma.mini_project_insurance_claim_records.batch.listener;
+
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.service.RejectedDossierSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RejectedDossierSkipListenerTests {
+
+    private final RejectedDossierSink sink = mock(RejectedDossierSink.class);
+    private final RejectedDossierSkipListener listener = new RejectedDossierSkipListener(sink);
+
+    @Test
+    void recordsWriteSkipsOfPipelinedDossiers() {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber("AF-001");
+
+        listener.onSkipInWrite(CompletableFuture.completedFuture(dossier),
+                new DataIntegrityViolationException("duplicate", new SQLException("unique violation")));
+
+        verify(sink).reject("AF-001", "write",
+                "DataIntegrityViolationException: duplicate; caused by SQLException: unique violation");
+    }
+
+    @Test
+    void recordsProcessFailuresOfPipelinedDossiersWithTheirInput() {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber("AF-003");
+        ArithmeticException failure = new ArithmeticException("long overflow");
+        ItemProcessor<Dossier, Dossier> processor = listener.recordingInputs(item -> {
+            throw failure;
+        });
+
+        assertThrows(ArithmeticException.class, () -> processor.process(dossier));
+        // AsyncItemWriter rethrows the exception of the failed future
+        listener.onSkipInWrite(CompletableFuture.failedFuture(failure), failure);
+
+        verify(sink).reject("AF-003", "process", "ArithmeticException: long overflow");
+    }
+
+    @Test
+    void recordsProcessFailureWithoutKnownInput() {
+        IllegalArgumentException failure = new IllegalArgumentException("bad dossier");
+
+        listener.onSkipInWrite(CompletableFuture.failedFuture(failure), failure);
+
+        verify(sink).reject(isNull(), eq("process"), eq("IllegalArgumentException: bad dossier"));
+    }
+
+    @Test
+    void recordsProcessAndReadSkips() {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber("AF-002");
+
+        listener.onSkipInProcess(dossier, new ArithmeticException("long overflow"));
+        listener.onSkipInRead(new IllegalArgumentException("bad payload"));
+
+        verify(sink).reject("AF-002", "process", "ArithmeticException: long overflow");
+        verify(sink).reject(isNull(), eq("read"), eq("IllegalArgumentException: bad payload"));
+    }
+}
@@ -0,0 +1,59 @@
+package ma.mini_project_insurance_claim_records.batch.processor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.service.ReferenceMedicationService;
+import ma.mini_project_insurance_claim_records.service.ReimbursementService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FusedReimbursementProcessorTests {
+
+    @Test
+    void matchesStagedProcessing() throws Exception {
+        DossierValidationProcessor validation = mock(DossierValidationProcessor.class);
+        when(validation.process(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ReferenceMedicationService referenceMedicationService = mock(ReferenceMedicationService.class);
+        when(referenceMedicationService.getReferenceMedication(eq(1L), anyString(), any(Money.class)))
+                .thenReturn(new TreatmentProduct(1L, "DOLIPRANE", "PARACETAMOL", Money.of(19.80), 0.70));
+        when(referenceMedicationService.getReferenceMedication(eq(2L), anyString(), any(Money.class)))
+                .thenReturn(new TreatmentProduct(2L, "AUGMENTIN", "AMOXICILLINE", Money.of(87.10), 0.70));
+        ReimbursementService reimbursementService = new ReimbursementService();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        DossierCompositeProcessor staged = new DossierCompositeProcessor(validation,
+                new DossierTreatmentMapper(referenceMedicationService),
+                new TreatmentReimbursementProcessor(reimbursementService),
+                new TotalReimbursementProcessor(reimbursementService),
+                meterRegistry);
+        FusedReimbursementProcessor fused = new FusedReimbursementProcessor(validation,
+                referenceMedicationService, reimbursementService, meterRegistry);
+
+        Money stagedAmount = staged.process(dossier()).getReimbursedAmount();
+        Money fusedAmount = fused.process(dossier()).getReimbursedAmount();
+
+        // 19.80 * 0.70 + 87.10 * 0.70, the unknown medication is not reimbursed
+        assertEquals(Money.of(74.83), fusedAmount);
+        assertEquals(stagedAmount, fusedAmount);
+    }
+
+    private static Dossier dossier() {
+        Dossier dossier = new Dossier();
+        dossier.setTreatments(List.of(
+                new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)),
+                new Treatment(2L, true, "Augmentin", "Antibiotique", Money.of(87.10)),
+                new Treatment(3L, false, "Inconnu", "Autre", Money.of(12.00))));
+        return dossier;
+    }
+}
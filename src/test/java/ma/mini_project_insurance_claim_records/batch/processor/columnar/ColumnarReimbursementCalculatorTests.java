@@ -0,0 +1,86 @@
+package ma.mini_project_insurance_claim_records.batch.processor.columnar;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.service.ReferenceMedicationService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarReimbursementCalculatorTests {
+
+    @Test
+    void setsOneTotalPerDossier() {
+        ReferenceMedicationService referenceMedicationService = mock(ReferenceMedicationService.class);
+        when(referenceMedicationService.getReferenceMedication(eq(1L), anyString(), any(Money.class)))
+                .thenReturn(new TreatmentProduct(1L, "DOLIPRANE", "PARACETAMOL", Money.of(19.80), 0.70));
+        when(referenceMedicationService.getReferenceMedication(eq(2L), anyString(), any(Money.class)))
+                .thenReturn(new TreatmentProduct(2L, "AUGMENTIN", "AMOXICILLINE", Money.of(87.10), 0.70));
+        ColumnarReimbursementCalculator calculator = new ColumnarReimbursementCalculator(
+                referenceMedicationService, new SimpleMeterRegistry(), true);
+
+        Dossier both = dossier(
+                new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)),
+                new Treatment(2L, true, "Augmentin", "Antibiotique", Money.of(87.10)),
+                new Treatment(3L, false, "Inconnu", "Autre", Money.of(12.00)));
+        Dossier unknownOnly = dossier(new Treatment(3L, false, "Inconnu", "Autre", Money.of(12.00)));
+        Dossier doliprane = dossier(new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)));
+
+        calculator.calculate(List.of(both, unknownOnly, doliprane));
+
+        assertEquals(Money.of(74.83), both.getReimbursedAmount());
+        assertEquals(Money.ZERO, unknownOnly.getReimbursedAmount());
+        assertEquals(Money.of(13.86), doliprane.getReimbursedAmount());
+    }
+
+    @Test
+    void kernelsMatchMoneyRounding() {
+        int length = 1003;
+        Random random = new Random(42);
+        long[] centimes = new long[length];
+        long[] basisPoints = new long[length];
+        long[] expected = new long[length];
+        for (int i = 0; i < length; i++) {
+            centimes[i] = random.nextInt(1_000_000) - (i % 97 == 0 ? 500_000 : 0);
+            basisPoints[i] = i % 3 == 0 ? 7000 : random.nextInt(10_001);
+            expected[i] = Money.multiplyCentimes(centimes[i], basisPoints[i]);
+        }
+        // Halves, which must round up, and a price too large for the vector lanes
+        centimes[5] = 15;
+        basisPoints[5] = 7000;
+        expected[5] = 11;
+        centimes[6] = 1L << 50;
+        basisPoints[6] = 5000;
+        expected[6] = 1L << 49;
+
+        long[] scalar = new long[length];
+        new ScalarReimbursementKernel().multiply(centimes, basisPoints, scalar, length);
+        assertArrayEquals(expected, scalar);
+
+        assumeTrue(ReimbursementKernels.isVectorApiAvailable());
+        long[] vector = new long[length];
+        ReimbursementKernel vectorKernel = ReimbursementKernels.select(true);
+        assertEquals("VectorReimbursementKernel", vectorKernel.getClass().getSimpleName());
+        vectorKernel.multiply(centimes, basisPoints, vector, length);
+        assertArrayEquals(expected, vector);
+    }
+
+    private static Dossier dossier(Treatment... treatments) {
+        Dossier dossier = new Dossier();
+        dossier.setTreatments(List.of(treatments));
+        return dossier;
+    }
+}
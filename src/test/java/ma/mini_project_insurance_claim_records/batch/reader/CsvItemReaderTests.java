@@ -0,0 +1,69 @@
+package ma.mini_project_insurance_claim_records.batch.reader;
+
+import ma.mini_project_insurance_claim_records.batch.partition.CsvRangePartitioner;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvItemReaderTests {
+
+    // 743 bytes: a 108-byte header, a quoted comma, a CRLF line, a blank line and no newline at the end
+    private static final String FILE = "reference/ranges.csv";
+
+    private static final List<Long> CODES = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+
+    @ParameterizedTest
+    // From 8 partitions on the header is longer than a range; at 743 every range is one byte
+    @ValueSource(ints = {1, 2, 3, 5, 8, 13, 64, 743, 1000})
+    void readsEveryLineOnceAcrossRanges(int gridSize) throws Exception {
+        List<Long> codes = new ArrayList<>();
+        for (ExecutionContext range : new CsvRangePartitioner(new ClassPathResource(FILE)).partition(gridSize).values()) {
+            CsvItemReader reader = new CsvItemReader(FILE,
+                    range.getLong(CsvRangePartitioner.START_KEY), range.getLong(CsvRangePartitioner.END_KEY));
+            reader.open(new ExecutionContext());
+            codes.addAll(readAll(reader));
+            reader.close();
+        }
+
+        codes.sort(null);
+        assertEquals(CODES, codes);
+    }
+
+    @Test
+    void resumesAfterLastSavedPosition() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        CsvItemReader reader = new CsvItemReader(FILE, null, null);
+        reader.open(executionContext);
+        List<Long> codes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            codes.add(reader.read().getCODE());
+        }
+        reader.update(executionContext);
+        reader.read(); // Read but never committed
+        reader.close();
+
+        CsvItemReader restarted = new CsvItemReader(FILE, null, null);
+        restarted.open(executionContext);
+        codes.addAll(readAll(restarted));
+        restarted.close();
+
+        assertEquals(CODES, codes);
+    }
+
+    private static List<Long> readAll(CsvItemReader reader) throws Exception {
+        List<Long> codes = new ArrayList<>();
+        TreatmentProduct product;
+        while ((product = reader.read()) != null) {
+            codes.add(product.getCODE());
+        }
+        return codes;
+    }
+}
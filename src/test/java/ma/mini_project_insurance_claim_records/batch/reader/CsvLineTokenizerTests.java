@@ -0,0 +1,53 @@
+package ma.mini_project_insurance_claim_records.batch.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvLineTokenizerTests {
+
+    /** The split previously used by {@link CsvItemReader}. */
+    private static String[] splitWithRegex(String line) {
+        return line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+    }
+
+    private static void assertSameFields(CsvLineTokenizer tokenizer, String line) {
+        String[] expected = splitWithRegex(line);
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected.length, tokenizer.tokenize(bytes, 0, bytes.length), line);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].trim(), tokenizer.raw(i), line);
+            assertEquals(expected[i].replace("\"", "").trim(), tokenizer.text(i), line);
+        }
+    }
+
+    @Test
+    void matchesRegexSplit() {
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+        String[] lines = {
+                "a,b,c", "a,\"b,c\",d", "a,,b,,", ",a", "\"x\"\"y\",z", "a, b ,\" c \"",
+                "6118001230068,URO / EAU POUR IRRIGATION,EAU,3000,ML,SOLUTION,\"1 POCHE, 3 L\",95.00,0.00,95.00,P,0.00"
+        };
+        for (String line : lines) {
+            assertSameFields(tokenizer, line);
+        }
+    }
+
+    @Test
+    void matchesRegexSplitOnReferenceFile() throws Exception {
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/ref-des-medicaments-cnops-2014.csv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    assertSameFields(tokenizer, line);
+                }
+            }
+        }
+    }
+}
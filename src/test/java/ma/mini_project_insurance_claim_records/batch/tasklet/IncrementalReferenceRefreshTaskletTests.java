@@ -0,0 +1,126 @@
+package ma.mini_project_insurance_claim_records.batch.tasklet;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.mini_project_insurance_claim_records.batch.writer.csv.TreatmentProductJdbcBatchWriter;
+import ma.mini_project_insurance_claim_records.dto.ReferenceChangeSet;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import ma.mini_project_insurance_claim_records.service.ReferenceFileFingerprintService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IncrementalReferenceRefreshTaskletTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private TreatmentProductJdbcBatchWriter jdbcBatchWriter;
+    private ReferenceFileFingerprintService referenceFileFingerprintService;
+    private ApplicationEventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
+    private StepExecution stepExecution;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        jdbcBatchWriter = mock(TreatmentProductJdbcBatchWriter.class);
+        referenceFileFingerprintService = mock(ReferenceFileFingerprintService.class);
+        when(referenceFileFingerprintService.fingerprint()).thenReturn("fingerprint");
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        stepExecution = new StepExecution("refreshReferenceStep", new JobExecution(1L));
+
+        // Stored: 1 as in the file, 2 with another price, 5 no longer in the file
+        ResultSet unchanged = storedRow(1L, "DOLIPRANE", "PARACETAMOL", "19.80", 0.70);
+        ResultSet updated = storedRow(2L, "AUGMENTIN", "AMOXICILLINE", "87.10", 0.70);
+        ResultSet deleted = storedRow(5L, "DAFALGAN", "PARACETAMOL", "21.00", 0.70);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(unchanged);
+            handler.processRow(updated);
+            handler.processRow(deleted);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void appliesInsertsUpdatesAndDeletes() throws Exception {
+        ReferenceChangeSet changeSet = refresh("reference/refresh.csv");
+
+        assertEquals(List.of(3L), changeSet.getInsertedCodes());
+        assertEquals(List.of(2L), changeSet.getUpdatedCodes());
+        assertEquals(List.of(5L), changeSet.getDeletedCodes());
+        assertEquals(1, changeSet.getUnchanged());
+        assertEquals(List.of(2L, 3L), writtenCodes());
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        verify(referenceFileFingerprintService).record("fingerprint", 3);
+        assertEquals(0, stepExecution.getExecutionContext().getInt("refresh.rejected"));
+    }
+
+    @Test
+    void keepsStoredProductsWhenRowIsRejected() throws Exception {
+        ReferenceChangeSet changeSet = refresh("reference/refresh-rejected-row.csv");
+
+        assertEquals(List.of(3L), changeSet.getInsertedCodes());
+        assertEquals(List.of(2L), changeSet.getUpdatedCodes());
+        assertTrue(changeSet.getDeletedCodes().isEmpty());
+        assertEquals(List.of(2L, 3L), writtenCodes());
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        verify(referenceFileFingerprintService, never()).record(anyString(), anyInt());
+        assertEquals(1, stepExecution.getExecutionContext().getInt("refresh.rejected"));
+        assertEquals(1.0, meterRegistry.counter("reference.refresh.rows", "change", "rejected").count());
+    }
+
+    private ReferenceChangeSet refresh(String fileInput) throws Exception {
+        IncrementalReferenceRefreshTasklet tasklet = new IncrementalReferenceRefreshTasklet(jdbcTemplate,
+                jdbcBatchWriter, referenceFileFingerprintService, eventPublisher, meterRegistry, fileInput);
+        StepContribution contribution = stepExecution.createStepContribution();
+
+        tasklet.execute(contribution, new ChunkContext(new StepContext(stepExecution)));
+
+        ArgumentCaptor<ReferenceChangeSet> changeSet = ArgumentCaptor.forClass(ReferenceChangeSet.class);
+        verify(eventPublisher).publishEvent(changeSet.capture());
+        return changeSet.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> writtenCodes() throws Exception {
+        ArgumentCaptor<Chunk<TreatmentProduct>> chunk = ArgumentCaptor.forClass(Chunk.class);
+        verify(jdbcBatchWriter).write(chunk.capture());
+        return chunk.getValue().getItems().stream().map(TreatmentProduct::getCODE).toList();
+    }
+
+    private static ResultSet storedRow(long code, String nom, String dci1, String prixBr, double tauxRemboursement)
+            throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(code);
+        when(resultSet.getString(2)).thenReturn(nom);
+        when(resultSet.getString(3)).thenReturn(dci1);
+        when(resultSet.getBigDecimal(4)).thenReturn(new BigDecimal(prixBr));
+        when(resultSet.getDouble(5)).thenReturn(tauxRemboursement);
+        return resultSet;
+    }
+}
@@ -0,0 +1,58 @@
+package ma.mini_project_insurance_claim_records.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTests {
+
+    @Test
+    void convertsDoublesAsWrittenInDecimal() {
+        assertEquals(1980, Money.of(19.80).centimes());
+        assertEquals(101, Money.of(1.005).centimes());
+        assertEquals(13, Money.of(0.125).centimes());
+        assertEquals(-13, Money.of(-0.125).centimes());
+        assertEquals(30, Money.of(0.1 + 0.2).centimes());
+    }
+
+    @Test
+    void parsesAndFormatsTwoDecimals() {
+        assertEquals(Money.ofCentimes(9500), Money.parse("95.00"));
+        assertEquals(Money.ofCentimes(1235), Money.parse("12.345"));
+        assertEquals("-12.05", Money.ofCentimes(-1205).toString());
+        assertEquals(new BigDecimal("0.00"), Money.ZERO.toBigDecimal());
+        assertEquals(Money.ofCentimes(1050), Money.of(new BigDecimal("10.5")));
+    }
+
+    @Test
+    void appliesRatesWithOneHalfUpRounding() {
+        assertEquals(7000, Money.basisPoints(0.70));
+        // 19.80 * 0.70 = 13.86 exactly, 87.10 * 0.70 = 60.97 exactly
+        assertEquals(Money.ofCentimes(1386), Money.of(19.80).times(0.70));
+        assertEquals(Money.ofCentimes(6097), Money.of(87.10).times(0.70));
+        // 0.15 * 0.70 = 0.105, rounded away from zero in both directions
+        assertEquals(11, Money.multiplyCentimes(15, 7000));
+        assertEquals(-11, Money.multiplyCentimes(-15, 7000));
+        assertEquals(10, Money.multiplyCentimes(14, 7000));
+    }
+
+    @Test
+    void sumsExactly() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 1000; i++) {
+            total = total.plus(Money.of(0.10));
+        }
+        assertEquals(Money.ofCentimes(10_000), total);
+        assertEquals(Money.ofCentimes(-5), Money.ZERO.minus(Money.ofCentimes(5)));
+    }
+
+    @Test
+    void rejectsOverflowAndNonFiniteAmounts() {
+        assertThrows(ArithmeticException.class, () -> Money.ofCentimes(Long.MAX_VALUE).plus(Money.ofCentimes(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCentimes(Long.MAX_VALUE).times(7000L));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(Double.NaN));
+    }
+}
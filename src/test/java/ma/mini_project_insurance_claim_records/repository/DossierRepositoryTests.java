@@ -0,0 +1,91 @@
+package ma.mini_project_insurance_claim_records.repository;
+
+import jakarta.persistence.EntityManager;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class DossierRepositoryTests {
+
+    @Autowired
+    private DossierRepository dossierRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // The JPA path of CsvItemWriter and entity saves; the dossier step writes through DossierService (see DossierServiceTests)
+    @Test
+    void persistsChunkWithBatchedStatements() {
+        List<Dossier> chunk = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            chunk.add(dossier("AFF-" + i));
+        }
+
+        dossierRepository.saveAll(chunk);
+        entityManager.flush();
+
+        assertEquals(40, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        // One batched insert per table, plus at most one sequence call for the treatment ids
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sameMedicationInTwoDossiersGetsTwoRows() {
+        Dossier first = dossier("AFF-A");
+        Dossier second = dossier("AFF-B");
+
+        dossierRepository.saveAll(List.of(first, second));
+        entityManager.flush();
+        entityManager.clear();
+
+        Treatment fromFirst = dossierRepository.findById("AFF-A").orElseThrow().getTreatments().get(0);
+        Treatment fromSecond = dossierRepository.findById("AFF-B").orElseThrow().getTreatments().get(0);
+        assertEquals(fromFirst.getCodeBarre(), fromSecond.getCodeBarre());
+        assertNotEquals(fromFirst.getId(), fromSecond.getId());
+        assertEquals("AFF-B", fromSecond.getDossier().getAffiliationNumber());
+    }
+
+    private static Dossier dossier(String affiliationNumber) {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber(affiliationNumber);
+        dossier.setInsuredName("Alaoui");
+        dossier.setBeneficiaryName("Alaoui");
+        dossier.setDossierSubmissionDate(LocalDate.of(2024, 1, 15));
+        dossier.setPrixConsultation(Money.of(150.00));
+        dossier.setTotalCost(Money.of(268.90));
+        dossier.setTreatments(new ArrayList<>(List.of(
+                new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)),
+                new Treatment(2L, true, "Augmentin", "Antibiotique", Money.of(87.10)),
+                new Treatment(3L, false, "Inconnu", "Autre", Money.of(12.00)))));
+        return dossier;
+    }
+}
@@ -0,0 +1,75 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.dto.DossierDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvFileDossierSourceTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void groupsConsecutiveLinesIntoDossiers() throws Exception {
+        Path file = write("""
+                numeroAffiliation,nomAssure,nomBeneficiaire,dateDepotDossier,montantTotalFrais,prixConsultation,codeBarre,nomMedicament,typeMedicament,prixMedicament,existe
+                AFF-1,Alaoui,Alaoui,2024-01-15,268.90,150.00,1,Doliprane,Antalgique,19.80,true
+                AFF-1,Alaoui,Alaoui,2024-01-15,268.90,150.00,2,"Augmentin 1g, sachet",Antibiotique,87.10,true
+
+                AFF-2,Bennani,Sara,2024-01-16,150.00,150.00,,,,,
+                """);
+
+        try (CsvFileDossierSource source = new CsvFileDossierSource(file)) {
+            DossierDTO first = source.next();
+            assertEquals("AFF-1", first.getNumeroAffiliation());
+            assertEquals(LocalDate.of(2024, 1, 15), first.getDateDepotDossier());
+            assertEquals(268.90, first.getMontantTotalFrais());
+            assertEquals(2, first.getTraitements().size());
+            assertEquals("Augmentin 1g, sachet", first.getTraitements().get(1).getNomMedicament());
+            assertEquals(87.10, first.getTraitements().get(1).getPrixMedicament());
+            assertTrue(first.getTraitements().get(1).isExiste());
+
+            DossierDTO second = source.next();
+            assertEquals("AFF-2", second.getNumeroAffiliation());
+            assertEquals("Sara", second.getNomBeneficiaire());
+            assertTrue(second.getTraitements().isEmpty());
+
+            assertNull(source.next());
+        }
+    }
+
+    @Test
+    void skipsPastInvalidDossier() throws Exception {
+        Path file = write("""
+                numeroAffiliation,dateDepotDossier,codeBarre
+                AFF-1,not-a-date,1
+                AFF-2,2024-01-16,2
+                """);
+
+        try (CsvFileDossierSource source = new CsvFileDossierSource(file)) {
+            IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, source::next);
+            assertTrue(failure.getMessage().contains("line 2"), failure.getMessage());
+            assertEquals("AFF-2", source.next().getNumeroAffiliation());
+        }
+    }
+
+    @Test
+    void rejectsHeaderWithoutAffiliationNumber() throws Exception {
+        Path file = write("nomAssure,codeBarre\nAlaoui,1\n");
+
+        assertThrows(IllegalArgumentException.class, () -> new CsvFileDossierSource(file));
+    }
+
+    private Path write(String content) throws Exception {
+        return Files.writeString(directory.resolve("dossiers.csv"), content);
+    }
+}
@@ -0,0 +1,157 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import ma.mini_project_insurance_claim_records.repository.DossierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class DossierServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DossierRepository dossierRepository;
+
+    private JdbcTemplate jdbcTemplate;
+    private DossierService dossierService;
+    private final AtomicInteger statements = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE treatment, dossier");
+        dossierService = new DossierService(new JdbcTemplate(new StatementCountingDataSource(dataSource, statements)),
+                mock(ReimbursementRollupService.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void writesChunkWithThreeStatements() {
+        // 60 treatments take two blocks of treatment ids
+        List<Dossier> chunk = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            chunk.add(dossier("AFF-" + i));
+        }
+
+        DossierSaveResult result = dossierService.saveDossiers(chunk);
+
+        assertEquals(20, result.inserted());
+        assertEquals(0, result.skipped());
+        // Dossier insert, treatment id blocks, treatment insert
+        assertEquals(3, statements.get());
+        assertEquals(20, count("SELECT count(*) FROM dossier"));
+        assertEquals(60, count("SELECT count(DISTINCT id) FROM treatment"));
+        assertEquals(3, count("SELECT count(*) FROM treatment WHERE dossier_id = 'AFF-7'"));
+    }
+
+    @Test
+    void skipsStoredDossiersAndTheirTreatments() {
+        dossierService.saveDossiers(List.of(dossier("AFF-1"), dossier("AFF-2")));
+        statements.set(0);
+
+        DossierSaveResult result = dossierService.saveDossiers(
+                List.of(dossier("AFF-1"), dossier("AFF-2"), dossier("AFF-3")));
+
+        assertEquals(1, result.inserted());
+        assertEquals(2, result.skipped());
+        assertEquals(3, statements.get());
+        assertEquals(3, count("SELECT count(*) FROM dossier"));
+        assertEquals(9, count("SELECT count(*) FROM treatment"));
+    }
+
+    @Test
+    void sharesTreatmentIdBlocksWithHibernate() {
+        dossierService.saveDossiers(List.of(dossier("AFF-1")));
+        dossierRepository.save(dossier("AFF-2"));
+        dossierService.saveDossiers(List.of(dossier("AFF-3")));
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM treatment", Long.class);
+        Set<Long> distinct = new HashSet<>(ids);
+        assertEquals(9, ids.size());
+        assertEquals(9, distinct.size());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static Dossier dossier(String affiliationNumber) {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber(affiliationNumber);
+        dossier.setInsuredName("Alaoui");
+        dossier.setBeneficiaryName("Alaoui");
+        dossier.setDossierSubmissionDate(LocalDate.of(2024, 1, 15));
+        dossier.setPrixConsultation(Money.of(150.00));
+        dossier.setTotalCost(Money.of(268.90));
+        dossier.setReimbursedAmount(Money.of(74.83));
+        dossier.setTreatments(new ArrayList<>(List.of(
+                new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)),
+                new Treatment(2L, true, "Augmentin", "Antibiotique", Money.of(87.10)),
+                new Treatment(3L, false, "Inconnu", "Autre", Money.of(12.00)))));
+        return dossier;
+    }
+
+    // Counts every statement prepared or created on its connections
+    private static final class StatementCountingDataSource extends DelegatingDataSource {
+        private final AtomicInteger statements;
+
+        StatementCountingDataSource(DataSource dataSource, AtomicInteger statements) {
+            super(dataSource);
+            this.statements = statements;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("prepareStatement") || name.equals("createStatement") || name.equals("prepareCall")) {
+                            statements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.TreatmentProduct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MedicationMatchingEngineTests {
+
+    private MedicationMatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MedicationMatchingEngine(0.05, 0.6);
+        engine.rebuild(List.of(
+                new TreatmentProduct(1L, "DOLIPRANE", "PARACETAMOL", Money.of(19.80), 0.70),
+                new TreatmentProduct(2L, "AUGMENTIN", "AMOXICILLINE", Money.of(95.00), 0.70),
+                new TreatmentProduct(3L, "DAFALGAN", "PARACETAMOL", Money.of(21.00), 0.70)));
+    }
+
+    @Test
+    void matchesNameWithTypo() {
+        // 7 of the 8 query trigrams are in the 9 of DOLIPRANE: Dice 14/17
+        assertEquals(1L, engine.findBest(null, "DOLIPRAN", Money.of(19.80)).getCODE());
+        // Within the 5% band the similarity is only scaled down
+        assertEquals(1L, engine.findBest(null, "DOLIPRAN", Money.of(19.50)).getCODE());
+    }
+
+    @Test
+    void matchesGenericName() {
+        assertEquals(3L, engine.findBest(null, "PARACETAMOL", Money.of(21.00)).getCODE());
+    }
+
+    @Test
+    void rejectsCandidateOutsidePriceBand() {
+        assertNull(engine.findBest(null, "DOLIPRAN", Money.of(25.00)));
+    }
+
+    @Test
+    void rejectsCandidateBelowMinimumScore() {
+        // 3 of the 7 query trigrams are shared: Dice 6/16
+        assertNull(engine.findBest(null, "DOLIXYZ", Money.of(19.80)));
+    }
+
+    @Test
+    void addsBonusForSubmittedCode() {
+        // 6/16 plus the code bonus reaches the minimum score
+        assertEquals(1L, engine.findBest(1L, "DOLIXYZ", Money.of(19.80)).getCODE());
+    }
+
+    @Test
+    void encodesDistinctSortedTrigrams() {
+        // " AA", "AA " and "AAA" in base 37, space being 0 and A being 1
+        assertArrayEquals(new int[]{38, 1406, 1407}, MedicationMatchingEngine.trigrams("AAAA"));
+    }
+}
@@ -0,0 +1,55 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MedicationNameNormalizerTests {
+
+    private static String normalizeWithRegex(String input) {
+        return Normalizer.normalize(input, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                .toUpperCase()
+                .replaceAll("[^A-Z0-9]", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    @Test
+    void matchesRegexNormalization() {
+        String[] names = {
+                "Paracétamol 500 mg", "  DOLIPRANE   1000MG ", "Amoxicilline/acide clavulanique",
+                "ÉLOXATINE 5 MG/ML", "Straße", "cómprimé", "", "---", "URO / EAU POUR IRRIGATION"
+        };
+        for (String name : names) {
+            assertEquals(normalizeWithRegex(name), MedicationNameNormalizer.normalizeUncached(name), name);
+        }
+    }
+
+    @Test
+    void returnsAlreadyNormalizedNamesWithoutCopy() {
+        String name = "DOLIPRANE 1000MG";
+        assertSame(name, MedicationNameNormalizer.normalizeUncached(name));
+        assertNull(MedicationNameNormalizer.normalizeUncached(null));
+    }
+
+    @Test
+    void countsCacheHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MedicationNameNormalizer normalizer = new MedicationNameNormalizer(1, registry);
+
+        normalizer.normalize("Paracétamol");
+        normalizer.normalize("Paracétamol");
+        normalizer.normalize("Ibuprofène");
+
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "miss").counter().count());
+        assertEquals(1.0, registry.get("cache.evictions").counter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+}
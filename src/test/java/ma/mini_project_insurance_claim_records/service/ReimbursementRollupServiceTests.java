@@ -0,0 +1,70 @@
+package ma.mini_project_insurance_claim_records.service;
+
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReimbursementRollupServiceTests {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+
+    @Test
+    void sumsChunkPerAffiliationDayAndMedication() {
+        List<Dossier> chunk = List.of(
+                dossier("AFF-2", DAY, 100.00, 70.00,
+                        new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80))),
+                dossier("AFF-1", DAY, 50.25, 30.10,
+                        new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)),
+                        new Treatment(2L, true, "Augmentin", "Antibiotique", Money.of(87.10))),
+                dossier("AFF-3", null, 10.00, 5.00));
+
+        ReimbursementRollupService.ChunkTotals totals = ReimbursementRollupService.aggregate(chunk);
+
+        assertEquals(List.of("AFF-1", "AFF-2", "AFF-3"), List.copyOf(totals.byAffiliation().keySet()));
+        assertEquals(Money.of(30.10), totals.byAffiliation().get("AFF-1").reimbursed);
+
+        ReimbursementRollupService.Totals day = totals.byDay().get(DAY);
+        assertEquals(1, totals.byDay().size());
+        assertEquals(2, day.count);
+        assertEquals(Money.of(150.25), day.amount);
+        assertEquals(Money.of(100.10), day.reimbursed);
+
+        ReimbursementRollupService.Totals doliprane = totals.byMedication().get(1L);
+        assertEquals(2, doliprane.count);
+        assertEquals(Money.of(39.60), doliprane.amount);
+        assertEquals(1, totals.byMedication().get(2L).count);
+    }
+
+    @Test
+    void treatsMissingAmountsAsZero() {
+        Dossier dossier = dossier("AFF-1", DAY, 0, 0,
+                new Treatment(1L, true, "Doliprane", "Antalgique", null),
+                new Treatment(null, false, "Inconnu", "Autre", Money.of(12.00)));
+        dossier.setTotalCost(null);
+        dossier.setReimbursedAmount(null);
+
+        ReimbursementRollupService.ChunkTotals totals = ReimbursementRollupService.aggregate(List.of(dossier));
+
+        assertEquals(Money.ZERO, totals.byAffiliation().get("AFF-1").amount);
+        assertEquals(1, totals.byAffiliation().get("AFF-1").count);
+        assertEquals(Money.ZERO, totals.byMedication().get(1L).amount);
+        assertEquals(1, totals.byMedication().size());
+    }
+
+    private static Dossier dossier(String affiliationNumber, LocalDate submissionDate,
+                                   double totalCost, double reimbursed, Treatment... treatments) {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber(affiliationNumber);
+        dossier.setDossierSubmissionDate(submissionDate);
+        dossier.setTotalCost(Money.of(totalCost));
+        dossier.setReimbursedAmount(Money.of(reimbursed));
+        dossier.setTreatments(List.of(treatments));
+        return dossier;
+    }
+}
@@ -0,0 +1,82 @@
+package ma.mini_project_insurance_claim_records.validation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ma.mini_project_insurance_claim_records.model.Dossier;
+import ma.mini_project_insurance_claim_records.model.Money;
+import ma.mini_project_insurance_claim_records.model.Treatment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DossierValidationEngineTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DossierValidationEngine engine = new DossierValidationEngine(
+            DossierRules.DEFAULT_RULES.split(","), 2, meterRegistry);
+
+    @Test
+    void acceptsValidDossier() {
+        assertTrue(engine.validate(validDossier()).isValid());
+    }
+
+    @Test
+    void reportsEveryViolation() {
+        Dossier dossier = validDossier();
+        dossier.setInsuredName("");
+        dossier.setTotalCost(Money.ZERO);
+        dossier.setTreatments(List.of());
+
+        ValidationResult result = engine.validate(dossier);
+
+        assertEquals(3, result.size());
+        assertEquals("INSURED_NAME", result.get(0).code());
+        assertEquals("TOTAL_COST", result.get(1).code());
+        assertEquals("TREATMENTS", result.get(2).code());
+        assertEquals(1.0, meterRegistry.get("dossier.validation.violations").tag("rule", "TOTAL_COST").counter().count());
+    }
+
+    @Test
+    void reusesResultPerThread() {
+        Dossier invalid = validDossier();
+        invalid.setAffiliationNumber(null);
+
+        ValidationResult first = engine.validate(invalid);
+        assertEquals(1, first.size());
+        ValidationResult second = engine.validate(validDossier());
+
+        assertSame(first, second);
+        assertTrue(second.isValid());
+    }
+
+    @Test
+    void compilesConfiguredRules() {
+        DossierValidationEngine bounded = new DossierValidationEngine(
+                new String[]{"max_treatments"}, 1, meterRegistry);
+
+        ValidationResult result = bounded.validate(validDossier());
+
+        assertEquals("MAX_TREATMENTS: Dossier has more than 1 treatments.", result.describe());
+        assertThrows(IllegalArgumentException.class,
+                () -> new DossierValidationEngine(new String[]{"UNKNOWN"}, 1, meterRegistry));
+    }
+
+    private static Dossier validDossier() {
+        Dossier dossier = new Dossier();
+        dossier.setAffiliationNumber("AF-001");
+        dossier.setInsuredName("Alami");
+        dossier.setBeneficiaryName("Alami");
+        dossier.setDossierSubmissionDate(LocalDate.now().minusDays(1));
+        dossier.setPrixConsultation(Money.of(150.00));
+        dossier.setTotalCost(Money.of(300.00));
+        dossier.setTreatments(List.of(
+                new Treatment(1L, true, "Doliprane", "Antalgique", Money.of(19.80)),
+                new Treatment(2L, true, "Augmentin", "Antibiotique", Money.of(87.10))));
+        return dossier;
+    }
+}